@@ -13,6 +13,10 @@ public abstract class CompassExtension {
         getStagingData().convention(layout.getProjectDirectory().dir("staging"));
         getStagingDataFormat().convention(MappingIOFormat.MDC_EXPLODED);
         getInputs().convention(layout.getProjectDirectory().dir("input"));
+        getIOThreads().convention(Runtime.getRuntime().availableProcessors());
+        getDataCache().convention(layout.getBuildDirectory().dir("compass/dataCache"));
+        getMappingCache().convention(layout.getBuildDirectory().dir("compass/mappingCache"));
+        getMetadataCache().convention(layout.getBuildDirectory().dir("compass/metadataCache"));
     }
 
     public abstract Property<String> getLauncherManifestURL();
@@ -28,4 +32,21 @@ public abstract class CompassExtension {
     public abstract Property<MappingIOFormat> getStagingDataFormat();
 
     public abstract DirectoryProperty getInputs();
+
+    public abstract Property<Integer> getIOThreads();
+
+    /**
+     * The directory for the caches of the parsed production and staging data, which speed up repeated reads.
+     */
+    public abstract DirectoryProperty getDataCache();
+
+    /**
+     * The directory for the caches of the chained and reversed intermediate mapping files, which are reused across builds.
+     */
+    public abstract DirectoryProperty getMappingCache();
+
+    /**
+     * The directory for the caches of the parsed Blackstone metadata, which are reused across builds.
+     */
+    public abstract DirectoryProperty getMetadataCache();
 }
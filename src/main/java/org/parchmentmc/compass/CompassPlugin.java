@@ -15,6 +15,7 @@ import org.parchmentmc.compass.providers.DelegatingProvider;
 import org.parchmentmc.compass.providers.IntermediateProvider;
 import org.parchmentmc.compass.providers.mcpconfig.SRGProvider;
 import org.parchmentmc.compass.tasks.*;
+import org.parchmentmc.compass.util.MappingCache;
 import org.parchmentmc.compass.util.MappingUtil;
 import org.parchmentmc.compass.util.download.BlackstoneDownloader;
 import org.parchmentmc.compass.util.download.ManifestsDownloader;
@@ -45,6 +46,7 @@ public class CompassPlugin implements Plugin<Project> {
     private ManifestsDownloader manifestsDownloader;
     private ObfuscationMapsDownloader obfuscationMapsDownloader;
     private BlackstoneDownloader blackstoneDownloader;
+    private Provider<MappingCache> mappingCache;
 
     @Inject
     public CompassPlugin(ObjectFactory objectFactory) {
@@ -59,6 +61,7 @@ public class CompassPlugin implements Plugin<Project> {
         manifestsDownloader = new ManifestsDownloader(project);
         obfuscationMapsDownloader = new ObfuscationMapsDownloader(project);
         blackstoneDownloader = new BlackstoneDownloader(project);
+        mappingCache = extension.getMappingCache().map(dir -> new MappingCache(dir.getAsFile().toPath()));
 
         manifestsDownloader.getLauncherManifestURL().set(extension.getLauncherManifestURL());
         manifestsDownloader.getVersion().set(extension.getVersion());
@@ -93,8 +96,16 @@ public class CompassPlugin implements Plugin<Project> {
         // noinspection NullableProblems
         Provider<IMappingFile> officialMapProvider = obfMapProvider.map(IMappingFile::reverse);
 
-        intermediates.add(new DelegatingProvider("obf", officialMapProvider.map(s -> s.chain(s.reverse()))));
-        intermediates.add(new DelegatingProvider("official", officialMapProvider));
+        Provider<String> obfMapHash = obfuscationMapsDownloader.getObfuscationMapHash();
+
+        intermediates.add(new DelegatingProvider("obf", officialMapProvider.map(s -> {
+            try {
+                return getMappingCache().get("official.chain(official.reverse)", obfMapHash.get(), () -> s.chain(s.reverse()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create obf intermediate mapping", e);
+            }
+        }), obfMapHash));
+        intermediates.add(new DelegatingProvider("official", officialMapProvider, obfMapHash));
         intermediates.add(new SRGProvider("srg", project));
 
         createValidationTask(extension, tasks);
@@ -190,6 +201,16 @@ public class CompassPlugin implements Plugin<Project> {
         });
     }
 
+    /**
+     * Returns the cache of chained and reversed intermediate mapping files, stored in the
+     * {@linkplain CompassExtension#getMappingCache() mapping cache directory}.
+     *
+     * @return the mapping cache
+     */
+    public MappingCache getMappingCache() {
+        return mappingCache.get();
+    }
+
     public NamedDomainObjectSet<IntermediateProvider> getIntermediates() {
         return intermediates;
     }
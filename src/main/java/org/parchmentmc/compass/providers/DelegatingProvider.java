@@ -1,6 +1,7 @@
 package org.parchmentmc.compass.providers;
 
 import net.minecraftforge.srgutils.IMappingFile;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.gradle.api.provider.Provider;
 
 /**
@@ -8,14 +9,27 @@ import org.gradle.api.provider.Provider;
  */
 public class DelegatingProvider extends IntermediateProvider {
     private final Provider<IMappingFile> provider;
+    @Nullable
+    private final Provider<String> sourceHash;
 
     public DelegatingProvider(String name, Provider<IMappingFile> provider) {
+        this(name, provider, null);
+    }
+
+    public DelegatingProvider(String name, Provider<IMappingFile> provider, @Nullable Provider<String> sourceHash) {
         super(name);
         this.provider = provider;
+        this.sourceHash = sourceHash;
     }
 
     @Override
     public IMappingFile getMapping() {
         return provider.get();
     }
+
+    @Nullable
+    @Override
+    public String getSourceHash() {
+        return sourceHash != null ? sourceHash.getOrNull() : null;
+    }
 }
@@ -1,6 +1,7 @@
 package org.parchmentmc.compass.providers;
 
 import net.minecraftforge.srgutils.IMappingFile;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.gradle.api.Named;
 import org.parchmentmc.compass.CompassPlugin;
 
@@ -30,4 +31,20 @@ public abstract class IntermediateProvider implements Named {
      * @throws IOException if there is an exception while loading or creating the mapping file
      */
     public abstract IMappingFile getMapping() throws IOException;
+
+    /**
+     * Returns a hash of the source artifacts of the mapping file, which changes whenever the mapping file would change.
+     * The hash is used to cache mapping files computed from this mapping file across builds.
+     *
+     * <p>By default, this returns {@code null}, which means the hash is unknown and computed mapping files are not
+     * cached.</p>
+     *
+     * @return A hash of the source artifacts, or {@code null} if unknown
+     * @throws IOException if there is an exception while computing the hash
+     * @see org.parchmentmc.compass.util.MappingCache
+     */
+    @Nullable
+    public String getSourceHash() throws IOException {
+        return null;
+    }
 }
@@ -8,6 +8,7 @@ import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.logging.Logger;
+import org.gradle.internal.hash.HashUtil;
 import org.parchmentmc.compass.CompassExtension;
 import org.parchmentmc.compass.providers.IntermediateProvider;
 import org.parchmentmc.compass.util.JSONUtil;
@@ -49,16 +50,7 @@ public class SRGProvider extends IntermediateProvider {
     @Override
     public IMappingFile getMapping() throws IOException {
         final Logger logger = project.getLogger();
-
-        Configuration mcpConfig = project.getConfigurations().getByName(MCP_CONFIG_CONFIGURATION_NAME);
-        Set<File> files = mcpConfig.resolve();
-        if (files.isEmpty())
-            throw new IllegalStateException("No files in '" + MCP_CONFIG_CONFIGURATION_NAME + "' configuration");
-        File file = files.iterator().next();
-        if (files.size() > 1) {
-            logger.warn("More than 1 artifact in '{}' configuration, using topmost artifact: {}", MCP_CONFIG_CONFIGURATION_NAME, file);
-        }
-        logger.debug("Retrieved artifact for '{}' artifact: {}", MCP_CONFIG_CONFIGURATION_NAME, file);
+        File file = resolveArtifact();
 
         CompassExtension extension = project.getExtensions().getByType(CompassExtension.class);
 
@@ -90,4 +82,25 @@ public class SRGProvider extends IntermediateProvider {
             return mapping;
         }
     }
+
+    /**
+     * Returns the SHA-1 hash of the MCPConfig artifact.
+     */
+    @Override
+    public String getSourceHash() {
+        return HashUtil.sha1(resolveArtifact()).asZeroPaddedHexString(40);
+    }
+
+    private File resolveArtifact() {
+        Configuration mcpConfig = project.getConfigurations().getByName(MCP_CONFIG_CONFIGURATION_NAME);
+        Set<File> files = mcpConfig.resolve();
+        if (files.isEmpty())
+            throw new IllegalStateException("No files in '" + MCP_CONFIG_CONFIGURATION_NAME + "' configuration");
+        File file = files.iterator().next();
+        if (files.size() > 1) {
+            project.getLogger().warn("More than 1 artifact in '{}' configuration, using topmost artifact: {}", MCP_CONFIG_CONFIGURATION_NAME, file);
+        }
+        project.getLogger().debug("Retrieved artifact for '{}' artifact: {}", MCP_CONFIG_CONFIGURATION_NAME, file);
+        return file;
+    }
 }
@@ -0,0 +1,120 @@
+package org.parchmentmc.compass.storage;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+
+import java.util.*;
+
+import static org.parchmentmc.feather.mapping.MappingDataBuilder.*;
+
+/**
+ * A mapping data container which overlays modifications on top of a base container, copying a class into mutable form
+ * only when it is first modified.
+ *
+ * <p>Reads of classes which were not modified go straight to the base container, so the cost of modifying the data
+ * scales with the amount of modified classes rather than with the size of the base container. The base container must
+ * not change while it is overlaid.</p>
+ *
+ * <p>Like {@link MappingDataBuilder}, the classes are iterated in order of their names.</p>
+ */
+public class OverlayMappingDataBuilder implements MappingDataContainer {
+    private final MappingDataContainer base;
+    private final MappingDataBuilder overlay = new MappingDataBuilder();
+    private final Set<String> removed = new HashSet<>();
+
+    public OverlayMappingDataBuilder(MappingDataContainer base) {
+        this.base = base;
+    }
+
+    @Override
+    public Collection<? extends PackageData> getPackages() {
+        return base.getPackages();
+    }
+
+    @Override
+    public @Nullable PackageData getPackage(String packageName) {
+        return base.getPackage(packageName);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned collection is a snapshot of the current classes, so classes may be modified or removed while
+     * iterating over it. The snapshot does not reflect those modifications.</p>
+     */
+    @Override
+    public Collection<? extends ClassData> getClasses() {
+        final Map<String, ClassData> classes = new TreeMap<>();
+        for (ClassData cls : base.getClasses()) {
+            if (!removed.contains(cls.getName())) classes.put(cls.getName(), cls);
+        }
+        for (MutableClassData cls : overlay.getClasses()) {
+            classes.put(cls.getName(), cls);
+        }
+        return Collections.unmodifiableCollection(classes.values());
+    }
+
+    @Override
+    public @Nullable ClassData getClass(String className) {
+        final MutableClassData modified = overlay.getClass(className);
+        if (modified != null) return modified;
+        if (removed.contains(className)) return null;
+        return base.getClass(className);
+    }
+
+    /**
+     * Returns the mutable form of the class with the given name, copying it from the base container on first access,
+     * or creating it if it does not exist.
+     *
+     * @param className the name of the class
+     * @return the mutable class data
+     */
+    public MutableClassData getOrCreateClass(String className) {
+        MutableClassData modified = overlay.getClass(className);
+        if (modified == null) {
+            final ClassData original = removed.remove(className) ? null : base.getClass(className);
+            modified = overlay.createClass(className);
+            if (original != null) copyInto(original, modified);
+        }
+        return modified;
+    }
+
+    /**
+     * Removes the class with the given name, if it exists.
+     *
+     * @param className the name of the class
+     * @return this builder
+     */
+    public OverlayMappingDataBuilder removeClass(String className) {
+        overlay.removeClass(className);
+        removed.add(className);
+        return this;
+    }
+
+    /**
+     * Returns the amount of classes which were copied from the base container or created in this builder, and not
+     * since removed.
+     *
+     * @return the amount of modified classes
+     */
+    public int getModifiedClassCount() {
+        return overlay.getClasses().size();
+    }
+
+    private static void copyInto(ClassData cls, MutableClassData target) {
+        target.addJavadoc(cls.getJavadoc());
+        for (FieldData field : cls.getFields()) {
+            target.createField(field.getName(), field.getDescriptor()).addJavadoc(field.getJavadoc());
+        }
+        for (MethodData method : cls.getMethods()) {
+            final MutableMethodData targetMethod = target.createMethod(method.getName(), method.getDescriptor())
+                    .addJavadoc(method.getJavadoc());
+            for (ParameterData param : method.getParameters()) {
+                targetMethod.createParameter(param.getIndex())
+                        .setName(param.getName())
+                        .setJavadoc(param.getJavadoc());
+            }
+        }
+    }
+}
@@ -2,41 +2,73 @@ package org.parchmentmc.compass.storage.input;
 
 import net.minecraftforge.srgutils.IMappingFile;
 import org.gradle.api.NamedDomainObjectCollection;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.gradle.internal.Pair;
 import org.parchmentmc.compass.providers.IntermediateProvider;
 import org.parchmentmc.compass.storage.io.SingleFileDataIO;
+import org.parchmentmc.compass.util.MappingCache;
 import org.parchmentmc.compass.util.MappingUtil;
+import org.parchmentmc.compass.util.ParallelUtil;
+import org.parchmentmc.compass.util.RemapIndex;
 import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
 import org.parchmentmc.feather.mapping.MappingDataBuilder;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /*
 Subdirectories within the input folder denote what mapping type is within
  */
 public class InputsReader {
     private final NamedDomainObjectCollection<IntermediateProvider> intermediates;
+    private final MappingCache mappingCache;
 
     public InputsReader(NamedDomainObjectCollection<IntermediateProvider> intermediates) {
+        this(intermediates, MappingCache.disabled());
+    }
+
+    /**
+     * @param intermediates the intermediate providers, by which the input subdirectories are matched
+     * @param mappingCache  the cache for the mapping files from each intermediate to official names
+     */
+    public InputsReader(NamedDomainObjectCollection<IntermediateProvider> intermediates, MappingCache mappingCache) {
         this.intermediates = intermediates;
+        this.mappingCache = mappingCache;
     }
 
     public MappingDataContainer parse(Path base) throws IOException {
-        List<Path> subdirs = Files.list(base)
-                .filter(Files::isDirectory)
-                .collect(Collectors.toList());
+        return parse(base, 1);
+    }
+
+    /**
+     * Parses the input files within the subdirectories of the given base directory.
+     *
+     * <p>Each file is parsed and remapped into its own builder, in parallel, and the builders are then merged in order
+     * of the directory names, then the file names. The result is the same regardless of the parallelism.</p>
+     *
+     * @param base        the base directory of the inputs
+     * @param parallelism the maximum amount of files to parse concurrently
+     * @return the parsed input data
+     * @throws IOException if an I/O error occurs while reading the inputs
+     */
+    public MappingDataContainer parse(Path base, int parallelism) throws IOException {
+        List<Path> subdirs;
+        try (Stream<Path> list = Files.list(base)) {
+            subdirs = list.filter(Files::isDirectory)
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
         // Skip if there are no directories
         if (subdirs.isEmpty()) {
             return new ImmutableMappingDataContainer(Collections.emptyList(), Collections.emptyList());
         }
 
-        MappingDataBuilder builder = new MappingDataBuilder();
-
         List<Pair<IntermediateProvider, Path>> directories = new ArrayList<>();
 
         final IntermediateProvider officialProvider = intermediates.getByName("official");
@@ -58,51 +90,76 @@ public class InputsReader {
             return new ImmutableMappingDataContainer(Collections.emptyList(), Collections.emptyList());
         }
 
+        List<Pair<RemapIndex, Path>> inputs = new ArrayList<>();
         for (Pair<IntermediateProvider, Path> dir : directories) {
-            Set<Path> files = Files.list(Objects.requireNonNull(dir.getRight())).filter(Files::isRegularFile).collect(Collectors.toSet());
+            List<Path> files;
+            try (Stream<Path> list = Files.list(Objects.requireNonNull(dir.getRight()))) {
+                files = list.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                        .collect(Collectors.toList());
+            }
             // Skip if there are no files within this directory
             if (files.isEmpty()) {
                 continue;
             }
 
             IntermediateProvider provider = Objects.requireNonNull(dir.getLeft());
-            IMappingFile mapping = provider.getMapping();
-            IMappingFile toOfficial = mapping.reverse().chain(obfToOfficial);
+            IMappingFile mapping = mappingCache.get(provider.getName() + ".reverse.chain(official)",
+                    MappingCache.combineHashes(provider.getSourceHash(), officialProvider.getSourceHash()),
+                    () -> provider.getMapping().reverse().chain(obfToOfficial));
+            RemapIndex toOfficial = RemapIndex.of(mapping);
 
             for (Path path : files) {
-                insertEntries(path, toOfficial, builder);
+                inputs.add(Pair.of(toOfficial, path));
+            }
+        }
+
+        List<MappingDataBuilder> parsed = ParallelUtil.map(inputs, parallelism,
+                input -> readEntries(Objects.requireNonNull(input.getRight()), Objects.requireNonNull(input.getLeft())));
+
+        MappingDataBuilder builder = new MappingDataBuilder();
+        for (MappingDataBuilder fileData : parsed) {
+            if (fileData != null) {
+                insertEntries(fileData, null, builder);
             }
         }
 
         return builder;
     }
 
-    // Reused data builder, to avoid excessive allocations
-    private final MappingDataBuilder temp = new MappingDataBuilder();
-
-    // Mapping should be [? -> official]
-    private void insertEntries(Path file, IMappingFile mapping, MappingDataBuilder builder) throws IOException {
-        temp.clearPackages().clearClasses();
+    // Reads the file and remaps its entries into a new builder, or returns null if the file is not an input file
+    @Nullable
+    private static MappingDataBuilder readEntries(Path file, RemapIndex mapping) throws IOException {
+        MappingDataBuilder temp = new MappingDataBuilder();
 
         String filename = file.getFileName().toString();
         if (filename.endsWith(".txt")) {
-            SimpleInputFileReader.parseLines(temp, Files.readAllLines(file));
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                SimpleInputFileReader.parse(temp, reader);
+            }
         } else if (filename.endsWith(".json")) {
             MappingUtil.copyData(SingleFileDataIO.INSTANCE.read(file), temp);
         } else {
-            return;
+            return null;
         }
 
-        for (MappingDataBuilder.MutablePackageData pkg : temp.getPackages()) {
-            builder.getOrCreatePackage(mapping.remapPackage(pkg.getName()))
+        MappingDataBuilder remapped = new MappingDataBuilder();
+        insertEntries(temp, mapping, remapped);
+        return remapped;
+    }
+
+    // Mapping should be [? -> official], or null to copy the entries as-is
+    private static void insertEntries(MappingDataBuilder source, @Nullable RemapIndex mapping, MappingDataBuilder builder) {
+        for (MappingDataBuilder.MutablePackageData pkg : source.getPackages()) {
+            builder.getOrCreatePackage(mapping != null ? mapping.remapPackage(pkg.getName()) : pkg.getName())
                     .addJavadoc(pkg.getJavadoc());
         }
 
         // Copy classes
-        for (MappingDataBuilder.MutableClassData cls : temp.getClasses()) {
+        for (MappingDataBuilder.MutableClassData cls : source.getClasses()) {
             String clsName = cls.getName();
 
-            IMappingFile.IClass mappedClass = mapping.getClass(cls.getName());
+            IMappingFile.IClass mappedClass = mapping != null ? mapping.getClass(cls.getName()) : null;
             if (mappedClass != null) {
                 clsName = mappedClass.getMapped();
             }
@@ -113,10 +170,10 @@ public class InputsReader {
             // Copy fields of classes
             for (MappingDataBuilder.MutableFieldData field : cls.getFields()) {
                 String fieldName = field.getName();
-                String fieldDescriptor = mapping.remapDescriptor(field.getDescriptor());
+                String fieldDescriptor = mapping != null ? mapping.remapDescriptor(field.getDescriptor()) : field.getDescriptor();
 
                 if (mappedClass != null) {
-                    IMappingFile.IField mappedField = mappedClass.getField(field.getName());
+                    IMappingFile.IField mappedField = mapping.getField(cls.getName(), field.getName());
                     if (mappedField != null) {
                         fieldName = mappedField.getMapped();
                         if (mappedField.getMappedDescriptor() != null) {
@@ -134,7 +191,7 @@ public class InputsReader {
                 String methodDescriptor = method.getDescriptor();
 
                 if (mappedClass != null) {
-                    IMappingFile.IMethod mappedMethod = mappedClass.getMethod(method.getName(), method.getDescriptor());
+                    IMappingFile.IMethod mappedMethod = mapping.getMethod(cls.getName(), method.getName(), method.getDescriptor());
                     if (mappedMethod != null) {
                         methodName = mappedMethod.getMapped();
                         methodDescriptor = mappedMethod.getMappedDescriptor();
@@ -1,95 +1,221 @@
 package org.parchmentmc.compass.storage.input;
 
+import org.parchmentmc.compass.util.StringPool;
 import org.parchmentmc.feather.mapping.MappingDataBuilder;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Reader for a simple and quickly editable input file format.
  *
+ * <p>The input is read in chunks and scanned line by line in place. Only the names, descriptors, and documentation
+ * lines are turned into strings. Line numbers in error messages start at 1.</p>
+ *
  * @see <a href="https://github.com/ParchmentMC/Compass/wiki/Simple-Input-File-Format"><tt>ParchmentMC/Compass</tt>
  * repository wiki, "Simple Input File Format"</a>
  */
 public class SimpleInputFileReader {
-    static final Pattern DEFINITION_WORD = Pattern.compile("^(package|class|field|method|param) ");
+    private static final int MAX_TOKENS = 4;
 
     public static void parseLines(MappingDataBuilder builder, List<String> lines) throws IOException {
-        Matcher defWordMatcher = DEFINITION_WORD.matcher("");
-
-        MappingDataBuilder.MutableHasJavadoc<?> javadoc = null;
-        MappingDataBuilder.MutableClassData classData = null;
-        MappingDataBuilder.MutableMethodData methodData = null;
-        for (int i = 0, linesSize = lines.size(); i < linesSize; i++) {
-            String line = lines.get(i).trim();
-
-            int commentIndex = line.indexOf('#');
-            if (commentIndex != -1) {
-                line = line.substring(0, commentIndex).trim();
-                if (line.isEmpty()) continue; // Skip lines with only comments
-            }
+        // Every line is terminated, so a trailing empty line is still read as a line
+        final StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        parse(builder, new StringReader(text.toString()));
+    }
+
+    /**
+     * Parses the input from the given reader into the builder. The reader is not closed.
+     *
+     * @param builder the builder to insert the parsed data into
+     * @param reader  the reader for the input
+     * @throws IOException if an I/O error occurs, or the input is malformed
+     */
+    public static void parse(MappingDataBuilder builder, Reader reader) throws IOException {
+        new Parser(builder, reader).parse();
+    }
+
+    private static final class Parser {
+        private final MappingDataBuilder builder;
+        private final Reader reader;
+        private char[] buf = new char[8192];
+        private int limit = 0;
+        private boolean eof = false;
 
-            if (defWordMatcher.reset(line).find()) {
-                String word = defWordMatcher.group(1);
-                String[] split = line.split(" ");
-                switch (word) {
-                    case "package": {
-                        if (split.length != 2)
-                            throw new IOException("Invalid package line at #" + i + "; incorrect no. of tokens: " + line);
-                        String name = split[1];
-                        javadoc = builder.createPackage(name);
-                        break;
+        private MappingDataBuilder.MutableHasJavadoc<?> javadoc = null;
+        private MappingDataBuilder.MutableClassData classData = null;
+        private MappingDataBuilder.MutableMethodData methodData = null;
+        private int lineNumber = 0;
+
+        // Token boundaries of the current definition line
+        private final int[] tokenStart = new int[MAX_TOKENS];
+        private final int[] tokenEnd = new int[MAX_TOKENS];
+        private int tokenCount;
+
+        Parser(MappingDataBuilder builder, Reader reader) {
+            this.builder = builder;
+            this.reader = reader;
+        }
+
+        void parse() throws IOException {
+            int start = 0; // Start of the current line
+            int scan = 0; // Position from which to look for the end of the current line
+            while (true) {
+                int end = scan;
+                while (end < limit && buf[end] != '\n' && buf[end] != '\r') end++;
+
+                if (end == limit) { // No line terminator in the buffer yet
+                    if (eof) {
+                        if (start < limit) line(start, limit);
+                        return;
                     }
-                    case "class": {
-                        if (split.length != 2)
-                            throw new IOException("Invalid class line at #" + i + "; incorrect no. of tokens: " + line);
-                        String name = split[1];
-                        classData = builder.createClass(name);
+                    scan = end - start;
+                    start = fill(start);
+                    scan += start;
+                    continue;
+                }
+
+                line(start, end);
+
+                // Skip over the line terminator, which may be '\n', '\r', or '\r\n'
+                start = end + 1;
+                if (buf[end] == '\r') {
+                    if (start == limit) start = fill(start);
+                    if (start < limit && buf[start] == '\n') start++;
+                }
+                scan = start;
+            }
+        }
+
+        // Moves the data from the given position to the start of the buffer and reads more; returns the new position
+        private int fill(int from) throws IOException {
+            if (from > 0) {
+                System.arraycopy(buf, from, buf, 0, limit - from);
+                limit -= from;
+            }
+            if (limit == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+
+            final int read = reader.read(buf, limit, buf.length - limit);
+            if (read == -1) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+            return 0;
+        }
+
+        private void line(int start, int end) throws IOException {
+            lineNumber++;
+
+            // Trim, the same as String#trim
+            while (start < end && buf[start] <= ' ') start++;
+            while (end > start && buf[end - 1] <= ' ') end--;
+
+            for (int i = start; i < end; i++) {
+                if (buf[i] == '#') {
+                    end = i;
+                    while (end > start && buf[end - 1] <= ' ') end--;
+                    if (start == end) return; // Skip lines with only comments
+                    break;
+                }
+            }
+
+            int keywordEnd = start;
+            while (keywordEnd < end && buf[keywordEnd] != ' ') keywordEnd++;
+            if (keywordEnd == end) { // A definition word must be followed by a space
+                documentation(start, end);
+                return;
+            }
+
+            switch (keywordEnd - start) {
+                case 5:
+                    if (keywordIs("class", start)) {
+                        tokenize(start, end);
+                        if (tokenCount != 2) throw invalid("class", "incorrect no. of tokens", start, end);
+                        classData = builder.createClass(token(1));
                         javadoc = classData;
-                        break;
-                    }
-                    case "field": {
-                        if (split.length != 3)
-                            throw new IOException("Invalid field line at #" + i + "; incorrect no. of tokens: " + line);
-                        if (classData == null)
-                            throw new IOException("Invalid field line at #" + i + "; No enclosing class: " + line);
-                        String name = split[1];
-                        String descriptor = split[2];
-                        javadoc = classData.createField(name, descriptor);
-                        break;
+                        return;
+                    } else if (keywordIs("field", start)) {
+                        tokenize(start, end);
+                        if (tokenCount != 3) throw invalid("field", "incorrect no. of tokens", start, end);
+                        if (classData == null) throw invalid("field", "No enclosing class", start, end);
+                        javadoc = classData.createField(token(1), token(2));
+                        return;
+                    } else if (keywordIs("param", start)) {
+                        tokenize(start, end);
+                        if (tokenCount < 2 || tokenCount > 3)
+                            throw invalid("param", "incorrect no. of tokens", start, end);
+                        if (methodData == null) throw invalid("param", "No enclosing method", start, end);
+                        byte index = Byte.parseByte(new String(buf, tokenStart[1], tokenEnd[1] - tokenStart[1]));
+                        String name = tokenCount == 3 ? token(2) : null;
+                        javadoc = methodData.createParameter(index).setName(name);
+                        return;
                     }
-                    case "method": {
-                        if (split.length != 3)
-                            throw new IOException("Invalid method line at #" + i + "; incorrect no. of tokens: " + line);
-                        if (classData == null)
-                            throw new IOException("Invalid method line at #" + i + "; No enclosing class: " + line);
-                        String name = split[1];
-                        String descriptor = split[2];
-                        methodData = classData.createMethod(name, descriptor);
+                    break;
+                case 6:
+                    if (keywordIs("method", start)) {
+                        tokenize(start, end);
+                        if (tokenCount != 3) throw invalid("method", "incorrect no. of tokens", start, end);
+                        if (classData == null) throw invalid("method", "No enclosing class", start, end);
+                        methodData = classData.createMethod(token(1), token(2));
                         javadoc = methodData;
-                        break;
+                        return;
                     }
-                    case "param": {
-                        if (split.length < 2 || split.length > 3)
-                            throw new IOException("Invalid param line at #" + i + "; incorrect no. of tokens: " + line);
-                        if (methodData == null)
-                            throw new IOException("Invalid param line at #" + i + "; No enclosing method: " + line);
-                        byte index = Byte.parseByte(split[1]);
-                        String name = split.length == 3 ? split[2] : null;
-                        javadoc = methodData.createParameter(index).setName(name);
-                        break;
+                    break;
+                case 7:
+                    if (keywordIs("package", start)) {
+                        tokenize(start, end);
+                        if (tokenCount != 2) throw invalid("package", "incorrect no. of tokens", start, end);
+                        javadoc = builder.createPackage(token(1));
+                        return;
                     }
-                    default: {
-                        throw new IOException("Unrecognized token " + word + " at #" + i + ": " + line);
+                    break;
+            }
+
+            documentation(start, end);
+        }
+
+        private void documentation(int start, int end) throws IOException {
+            if (javadoc == null) throw invalid("documentation", "No enclosing definition", start, end);
+            javadoc.addJavadoc(StringPool.intern(new String(buf, start, end - start)));
+        }
+
+        private boolean keywordIs(String keyword, int start) {
+            for (int i = 0; i < keyword.length(); i++) {
+                if (buf[start + i] != keyword.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        // Splits the line on every single space, the same as String#split(" ") on a trimmed line
+        private void tokenize(int start, int end) {
+            tokenCount = 0;
+            int tokenBegin = start;
+            for (int i = start; i <= end; i++) {
+                if (i == end || buf[i] == ' ') {
+                    if (tokenCount < MAX_TOKENS) {
+                        tokenStart[tokenCount] = tokenBegin;
+                        tokenEnd[tokenCount] = i;
                     }
+                    tokenCount++;
+                    tokenBegin = i + 1;
                 }
-            } else {
-                if (javadoc == null)
-                    throw new IOException("Invalid documentation line at #" + i + "; No enclosing definition: " + line);
-                javadoc.addJavadoc(line);
             }
         }
+
+        private String token(int index) {
+            return StringPool.intern(new String(buf, tokenStart[index], tokenEnd[index] - tokenStart[index]));
+        }
+
+        private IOException invalid(String kind, String reason, int start, int end) {
+            return new IOException("Invalid " + kind + " line at #" + lineNumber + "; " + reason + ": "
+                    + new String(buf, start, end - start));
+        }
     }
 }
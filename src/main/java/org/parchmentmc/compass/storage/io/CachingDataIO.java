@@ -0,0 +1,279 @@
+package org.parchmentmc.compass.storage.io;
+
+import com.google.common.hash.Hashing;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.compass.storage.io.binary.BinaryDataIO;
+import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.compass.util.ParallelUtil;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * Caches the data read from a {@linkplain PartitionedDataIO partitioned format} as a binary snapshot, so repeated
+ * reads of the same directory do not need to parse every file again.
+ *
+ * <p>Alongside the snapshot, a manifest records the size, modification time, and hash of each class file, and the
+ * classes read from it. On a read, a file is taken as unchanged if its size and modification time match, or otherwise
+ * if its hash matches. Only the changed files are parsed again, and the classes of the other files are taken from the
+ * snapshot. The version and packages are always read from the directory, as those are small.</p>
+ *
+ * <p>Both files are written through temporary files and atomic moves, and the manifest records the hash of the
+ * snapshot it was written with, so builds sharing the cache never pair one build's manifest with another's
+ * snapshot.</p>
+ */
+public class CachingDataIO implements MappingDataIO {
+    private static final String SNAPSHOT = "snapshot.bin";
+    private static final String MANIFEST = "manifest.json";
+
+    private final MappingDataIO delegate;
+    private final PartitionedDataIO partitioned;
+    private final Path cacheDirectory;
+
+    /**
+     * @param delegate       the format for writing the data
+     * @param partitioned    the format for reading the data, file by file
+     * @param cacheDirectory the directory under which to store the caches, one for each read directory
+     */
+    public CachingDataIO(MappingDataIO delegate, PartitionedDataIO partitioned, Path cacheDirectory) {
+        this.delegate = delegate;
+        this.partitioned = partitioned;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Wraps the format with a cache if it is {@linkplain PartitionedDataIO partitioned}, or otherwise returns the
+     * format as-is.
+     *
+     * @param format         the format
+     * @param cacheDirectory the directory under which to store the caches
+     * @return the caching format, or the given format
+     */
+    public static MappingDataIO wrap(MappingIOFormat format, Path cacheDirectory) {
+        if (format.getDataIO() instanceof PartitionedDataIO) {
+            return new CachingDataIO(format, (PartitionedDataIO) format.getDataIO(), cacheDirectory);
+        }
+        return format;
+    }
+
+    @Override
+    public void write(VersionedMappingDataContainer data, Path output) throws IOException {
+        delegate.write(data, output);
+    }
+
+    @Override
+    public void write(VersionedMappingDataContainer data, Path output, int parallelism) throws IOException {
+        delegate.write(data, output, parallelism);
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path input) throws IOException {
+        return read(input, 1);
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path input, int parallelism) throws IOException {
+        final Path cache = cacheDirectory.resolve(cacheKey(input));
+        final Manifest previous = readManifest(cache);
+        final VersionedMappingDataContainer snapshot = previous != null ? readSnapshot(cache, previous) : null;
+        final Map<String, FileEntry> previousFiles = snapshot != null ? previous.files : Collections.emptyMap();
+
+        // Find which files have changed since the snapshot, hashing any whose size or modification time differ
+        final List<Path> files = partitioned.listClassFiles(input);
+        final List<FileEntry> entries = ParallelUtil.map(files, parallelism, file -> {
+            final String path = relativePath(input, file);
+            final BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            final FileEntry old = previousFiles.get(path);
+
+            final FileEntry entry = new FileEntry();
+            entry.path = path;
+            entry.size = attrs.size();
+            entry.modified = attrs.lastModifiedTime().toMillis();
+            if (old != null && old.size == entry.size && old.modified == entry.modified) {
+                entry.sha256 = old.sha256;
+                entry.classes = old.classes;
+            } else {
+                entry.sha256 = hash(file);
+                if (old != null && entry.sha256.equals(old.sha256)) entry.classes = old.classes;
+            }
+            return entry;
+        });
+
+        // Take the classes of unchanged files from the snapshot, and mark the rest for parsing
+        final List<Collection<? extends ClassData>> fileClasses = new ArrayList<>(files.size());
+        final List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            final Collection<? extends ClassData> cached = snapshot != null ? fromSnapshot(snapshot, entries.get(i)) : null;
+            if (cached == null) changed.add(i);
+            fileClasses.add(cached);
+        }
+
+        final boolean upToDate = changed.isEmpty() && previousFiles.size() == files.size();
+        if (!changed.isEmpty()) {
+            final List<Collection<? extends ClassData>> parsed = ParallelUtil.map(changed, parallelism,
+                    i -> partitioned.readClassFile(files.get(i)));
+            for (int i = 0; i < changed.size(); i++) {
+                final int index = changed.get(i);
+                final Collection<? extends ClassData> classes = parsed.get(i);
+                fileClasses.set(index, classes);
+
+                final List<String> names = new ArrayList<>(classes.size());
+                for (ClassData cls : classes) {
+                    names.add(cls.getName());
+                }
+                entries.get(index).classes = names;
+            }
+        }
+
+        // Later files take precedence over earlier files for the same class, as when reading a whole directory
+        final Map<String, ClassData> classes = new LinkedHashMap<>();
+        for (Collection<? extends ClassData> fileClass : fileClasses) {
+            for (ClassData cls : fileClass) {
+                classes.put(cls.getName(), cls);
+            }
+        }
+
+        final VersionedMappingDataContainer data = new VersionedMDCDelegate<>(partitioned.readVersion(input),
+                new ImmutableMappingDataContainer(partitioned.readPackages(input), classes.values()));
+
+        if (!upToDate || !sameModifiedTimes(previous, entries)) {
+            writeCache(cache, data, entries);
+        }
+
+        return data;
+    }
+
+    @Nullable
+    private static Collection<? extends ClassData> fromSnapshot(VersionedMappingDataContainer snapshot, FileEntry entry) {
+        if (entry.classes == null) return null;
+        final List<ClassData> classes = new ArrayList<>(entry.classes.size());
+        for (String name : entry.classes) {
+            final ClassData cls = snapshot.getClass(name);
+            if (cls == null) return null; // Not in the snapshot after all, so parse the file again
+            classes.add(cls);
+        }
+        return classes;
+    }
+
+    private static boolean sameModifiedTimes(@Nullable Manifest previous, List<FileEntry> entries) {
+        if (previous == null) return false;
+        for (FileEntry entry : entries) {
+            final FileEntry old = previous.files.get(entry.path);
+            if (old == null || old.modified != entry.modified) return false;
+        }
+        return true;
+    }
+
+    private static String cacheKey(Path input) {
+        final Path absolute = input.toAbsolutePath().normalize();
+        final String name = absolute.getFileName() != null ? absolute.getFileName().toString() : "root";
+        return name + '-' + Hashing.sha256().hashString(absolute.toString(), StandardCharsets.UTF_8).toString()
+                .substring(0, 16);
+    }
+
+    private static String relativePath(Path base, Path file) {
+        return base.relativize(file).toString().replace('\\', '/');
+    }
+
+    @Nullable
+    private Manifest readManifest(Path cache) {
+        final Path manifestFile = cache.resolve(MANIFEST);
+        if (!Files.isRegularFile(manifestFile)) return null;
+
+        try (BufferedSource source = Okio.buffer(Okio.source(manifestFile))) {
+            final Manifest manifest = manifestAdapter().fromJson(source);
+            if (manifest == null || manifest.files == null || !formatName().equals(manifest.format)) return null;
+            return manifest;
+        } catch (IOException | JsonDataException e) {
+            return null; // Treat an unreadable manifest as no cache
+        }
+    }
+
+    @Nullable
+    private static VersionedMappingDataContainer readSnapshot(Path cache, Manifest manifest) {
+        final Path snapshotFile = cache.resolve(SNAPSHOT);
+        if (!Files.isRegularFile(snapshotFile)) return null;
+
+        try {
+            // Another build may have replaced the snapshot since the manifest was written
+            if (!hash(snapshotFile).equals(manifest.snapshot)) return null;
+            return BinaryDataIO.INSTANCE.read(snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            return null; // Treat an unreadable snapshot as no cache
+        }
+    }
+
+    private void writeCache(Path cache, VersionedMappingDataContainer data, List<FileEntry> entries) throws IOException {
+        Files.createDirectories(cache);
+
+        // Write to temporary files first, so an interrupted write or a concurrent build never leaves a partial file
+        final Manifest manifest = new Manifest();
+        manifest.format = formatName();
+        final Path snapshotTemp = Files.createTempFile(cache, "snapshot", ".tmp");
+        try {
+            BinaryDataIO.INSTANCE.write(data, snapshotTemp);
+            manifest.snapshot = hash(snapshotTemp);
+            Files.move(snapshotTemp, cache.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(snapshotTemp);
+        }
+
+        manifest.files = new LinkedHashMap<>();
+        for (FileEntry entry : entries) {
+            manifest.files.put(entry.path, entry);
+        }
+        final Path manifestTemp = Files.createTempFile(cache, "manifest", ".tmp");
+        try {
+            try (Buffer buffer = new Buffer()) {
+                manifestAdapter().toJson(buffer, manifest);
+                Files.write(manifestTemp, buffer.readByteArray());
+            }
+            Files.move(manifestTemp, cache.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(manifestTemp);
+        }
+    }
+
+    private static String hash(Path file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.sha256()).toString();
+    }
+
+    private String formatName() {
+        return partitioned.getClass().getName();
+    }
+
+    private static JsonAdapter<Manifest> manifestAdapter() {
+        return JSONUtil.MOSHI.adapter(Manifest.class);
+    }
+
+    static class Manifest {
+        public String format;
+        public String snapshot;
+        public Map<String, FileEntry> files;
+    }
+
+    static class FileEntry {
+        public String path;
+        public long size;
+        public long modified;
+        public String sha256;
+        @Nullable
+        public List<String> classes;
+    }
+}
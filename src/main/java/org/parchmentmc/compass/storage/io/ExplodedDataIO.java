@@ -2,19 +2,20 @@ package org.parchmentmc.compass.storage.io;
 
 import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
-import okio.BufferedSink;
+import okio.Buffer;
 import okio.BufferedSource;
 import okio.Okio;
 import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.compass.util.ParallelUtil;
 import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
 import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
 import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
 import org.parchmentmc.feather.util.SimpleVersion;
 
-import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -26,15 +27,27 @@ import static com.squareup.moshi.Types.newParameterizedType;
 import static com.squareup.moshi.Types.subtypeOf;
 
 // Writes out the data as folders based on package
-public class ExplodedDataIO implements MappingDataIO {
+public class ExplodedDataIO implements MappingDataIO, PartitionedDataIO, StreamingDataIO {
     public static final ExplodedDataIO INSTANCE = new ExplodedDataIO(JSONUtil.MOSHI, "  ");
 
     private final Moshi moshi;
     private final String indent;
+    private final boolean incremental;
 
     public ExplodedDataIO(Moshi moshi, String indent) {
+        this(moshi, indent, true);
+    }
+
+    /**
+     * @param moshi       the Moshi instance for (de)serializing the data
+     * @param indent      the indentation for the written JSON files
+     * @param incremental whether to only touch files whose contents have changed when writing, instead of clearing
+     *                    the output directory and rewriting every file
+     */
+    public ExplodedDataIO(Moshi moshi, String indent, boolean incremental) {
         this.moshi = moshi;
         this.indent = indent;
+        this.incremental = incremental;
     }
 
     private static final ParameterizedType PACKAGE_COLLECTION_TYPE =
@@ -42,79 +55,130 @@ public class ExplodedDataIO implements MappingDataIO {
     private static final String EXTENSION = ".json";
 
     public void write(VersionedMappingDataContainer data, Path base) throws IOException {
-        if (Files.exists(base)) {
-            // noinspection ResultOfMethodCallIgnored
-            Files.walk(base)
-                    .sorted(Comparator.reverseOrder())
-                    .map(Path::toFile)
-                    .forEach(File::delete);
-        }
-        Files.createDirectories(base);
+        write(base, data.getFormatVersion(), data.getPackages(), data.getClasses().iterator());
+    }
 
-        // Write out version data
-        try (BufferedSink sink = Okio.buffer(Okio.sink(base.resolve("info.json")))) {
-            DataInfo info = new DataInfo();
-            info.version = data.getFormatVersion();
+    @Override
+    public ClassWriter openWriter(Path base, SimpleVersion version,
+                                  Collection<? extends MappingDataContainer.PackageData> packages) throws IOException {
+        IncrementalDirectoryWriter writer = new IncrementalDirectoryWriter(base, incremental);
 
-            moshi.adapter(DataInfo.class).indent(indent).toJson(sink, info);
-        }
+        // Write out version data
+        DataInfo info = new DataInfo();
+        info.version = version;
+        writer.write(base.resolve("info.json"), toJson(moshi.adapter(DataInfo.class), info));
 
         // Write out packages.json
-        try (BufferedSink sink = Okio.buffer(Okio.sink(base.resolve("packages.json")))) {
-            moshi.adapter(PACKAGE_COLLECTION_TYPE).indent(indent).toJson(sink, data.getPackages());
-        }
+        writer.write(base.resolve("packages.json"),
+                toJson(moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE), packages));
 
         JsonAdapter<MappingDataContainer.ClassData> classAdapter = moshi.adapter(MappingDataContainer.ClassData.class).indent(indent);
         Path classesBase = base.resolve("classes");
-        for (MappingDataContainer.ClassData classData : data.getClasses()) {
-            String className = classData.getName() + EXTENSION;
+        return new ClassWriter() {
+            @Override
+            public void write(MappingDataContainer.ClassData classData) throws IOException {
+                String className = classData.getName() + EXTENSION;
 
-            String json = classAdapter.toJson(classData);
-            if (json.isEmpty()) continue;
+                String json = classAdapter.toJson(classData);
+                if (json.isEmpty()) return;
 
-            Path classPath = classesBase.resolve(className);
-            if (classPath.getParent() != null && !Files.isDirectory(classPath.getParent())) {
-                Files.createDirectories(classPath.getParent());
+                writer.write(classesBase.resolve(className), json.getBytes(StandardCharsets.UTF_8));
             }
 
-            try (BufferedSink sink = Okio.buffer(Okio.sink(classPath))) {
-                sink.writeUtf8(json);
+            @Override
+            public void close() throws IOException {
+                writer.finish();
             }
+        };
+    }
+
+    private <T> byte[] toJson(JsonAdapter<T> adapter, T value) throws IOException {
+        try (Buffer buffer = new Buffer()) {
+            adapter.indent(indent).toJson(buffer, value);
+            return buffer.readByteArray();
         }
     }
 
     public VersionedMappingDataContainer read(Path base) throws IOException {
+        return read(base, 1);
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path base, int parallelism) throws IOException {
+        SimpleVersion version = readVersion(base);
+        Collection<? extends MappingDataContainer.PackageData> packages = readPackages(base);
 
+        List<MappingDataContainer.ClassData> classes = ParallelUtil.map(listClassFiles(base), parallelism,
+                this::readClass);
+
+        return new VersionedMDCDelegate<>(version, new ImmutableMappingDataContainer(packages, classes));
+    }
+
+    @Override
+    public void read(Path base, Visitor visitor) throws IOException {
+        visitor.visitVersion(readVersion(base));
+        for (MappingDataContainer.PackageData packageData : readPackages(base)) {
+            visitor.visitPackage(packageData);
+        }
+        for (Path file : listClassFiles(base)) {
+            visitor.visitClass(readClass(file));
+        }
+    }
+
+    @Override
+    public SimpleVersion readVersion(Path base) throws IOException {
         DataInfo info;
         try (BufferedSource source = Okio.buffer(Okio.source(base.resolve("info.json")))) {
             info = moshi.adapter(DataInfo.class).indent(indent).fromJson(source);
         }
+        if (info == null) throw new IOException("info.json did not deserialize");
+        return info.version;
+    }
 
+    @Override
+    public Collection<? extends MappingDataContainer.PackageData> readPackages(Path base) throws IOException {
         Collection<? extends MappingDataContainer.PackageData> packages;
         try (BufferedSource source = Okio.buffer(Okio.source(base.resolve("packages.json")))) {
             packages = moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE).indent(indent).fromJson(source);
         }
+        if (packages == null) throw new IOException("packages.json did not deserialize");
+        return packages;
+    }
 
-        List<MappingDataContainer.ClassData> classes = new ArrayList<>();
+    @Override
+    public List<Path> listClassFiles(Path base) throws IOException {
+        List<Path> classFiles = new ArrayList<>();
 
-        JsonAdapter<MappingDataContainer.ClassData> classAdapter = moshi.adapter(MappingDataContainer.ClassData.class).indent(indent);
         Path classesBase = base.resolve("classes");
         Files.walkFileTree(classesBase, new SimpleFileVisitor<Path>() {
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                 Objects.requireNonNull(file);
                 Objects.requireNonNull(attrs);
 
-                try (BufferedSource source = Okio.buffer(Okio.source(file))) {
-                    classes.add(classAdapter.fromJson(source));
-                }
+                classFiles.add(file);
 
                 return FileVisitResult.CONTINUE;
             }
         });
+        // Sort so the classes are always in the same order, regardless of the directory walk order
+        Collections.sort(classFiles);
 
+        return classFiles;
+    }
 
-        return new VersionedMDCDelegate<>(info.version, new ImmutableMappingDataContainer(packages, classes));
+    @Override
+    public Collection<? extends MappingDataContainer.ClassData> readClassFile(Path file) throws IOException {
+        return Collections.singletonList(readClass(file));
+    }
+
+    private MappingDataContainer.ClassData readClass(Path file) throws IOException {
+        MappingDataContainer.ClassData data;
+        try (BufferedSource source = Okio.buffer(Okio.source(file))) {
+            data = moshi.adapter(MappingDataContainer.ClassData.class).indent(indent).fromJson(source);
+        }
+        if (data == null) throw new IOException(file + " did not deserialize");
+        return data;
     }
 
     static class DataInfo {
@@ -0,0 +1,81 @@
+package org.parchmentmc.compass.storage.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes out files within a base directory, for the directory-based formats.
+ *
+ * <p>In incremental mode, a file is only written if its contents differ from what is already on disk, and files which
+ * were present before but were not written by the time of {@link #finish()} are deleted along with any directories
+ * left empty. Otherwise, the base directory is cleared beforehand and every file is written out.</p>
+ *
+ * <p>The {@link #write(Path, byte[])} method may be called concurrently from multiple threads.</p>
+ */
+public class IncrementalDirectoryWriter {
+    private final Path base;
+    private final boolean incremental;
+    private final Set<Path> written = ConcurrentHashMap.newKeySet();
+
+    public IncrementalDirectoryWriter(Path base, boolean incremental) throws IOException {
+        this.base = base;
+        this.incremental = incremental;
+
+        if (!incremental && Files.exists(base)) {
+            try (Stream<Path> walk = Files.walk(base)) {
+                // noinspection ResultOfMethodCallIgnored
+                walk.sorted(Comparator.reverseOrder())
+                        .map(Path::toFile)
+                        .forEach(File::delete);
+            }
+        }
+        Files.createDirectories(base);
+    }
+
+    public Path getBase() {
+        return base;
+    }
+
+    public void write(Path file, byte[] contents) throws IOException {
+        written.add(file.toAbsolutePath().normalize());
+
+        if (incremental && Files.isRegularFile(file) && Files.size(file) == contents.length
+                && Arrays.equals(Files.readAllBytes(file), contents)) {
+            return; // Unchanged, so don't touch the file
+        }
+
+        if (file.getParent() != null && !Files.isDirectory(file.getParent())) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, contents);
+    }
+
+    public void finish() throws IOException {
+        if (!incremental) return;
+
+        final List<Path> existing;
+        try (Stream<Path> walk = Files.walk(base)) {
+            existing = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+
+        // Reverse order visits the contents of a directory before the directory itself
+        for (Path path : existing) {
+            if (path.equals(base)) continue;
+
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> contents = Files.list(path)) {
+                    if (contents.findAny().isPresent()) continue;
+                }
+                Files.delete(path);
+            } else if (!written.contains(path.toAbsolutePath().normalize())) {
+                Files.delete(path);
+            }
+        }
+    }
+}
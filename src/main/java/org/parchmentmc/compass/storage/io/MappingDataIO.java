@@ -23,9 +23,69 @@ public interface MappingDataIO {
         write(new VersionedMDCDelegate<>(VersionedMappingDataContainer.CURRENT_FORMAT, data), output);
     }
 
+    /**
+     * Writes the mapping data, using up to the given amount of threads if the format supports writing in parallel.
+     *
+     * @param data        the mapping data to write
+     * @param output      the output path
+     * @param parallelism the maximum amount of threads to use for writing
+     * @throws IOException if an I/O exception occurs while writing
+     */
+    default void write(VersionedMappingDataContainer data, Path output, int parallelism) throws IOException {
+        write(data, output);
+    }
+
+    default void write(VersionedMappingDataContainer data, File output, int parallelism) throws IOException {
+        write(data, output.toPath(), parallelism);
+    }
+
+    default void write(MappingDataContainer data, Path output, int parallelism) throws IOException {
+        write(new VersionedMDCDelegate<>(VersionedMappingDataContainer.CURRENT_FORMAT, data), output, parallelism);
+    }
+
+    default void write(MappingDataContainer data, File output, int parallelism) throws IOException {
+        write(new VersionedMDCDelegate<>(VersionedMappingDataContainer.CURRENT_FORMAT, data), output, parallelism);
+    }
+
     VersionedMappingDataContainer read(Path input) throws IOException;
 
     default VersionedMappingDataContainer read(File input) throws IOException {
         return read(input.toPath());
     }
+
+    /**
+     * Reads the mapping data, using up to the given amount of threads if the format supports reading in parallel.
+     *
+     * @param input       the input path
+     * @param parallelism the maximum amount of threads to use for reading
+     * @return the read mapping data
+     * @throws IOException if an I/O exception occurs while reading
+     */
+    default VersionedMappingDataContainer read(Path input, int parallelism) throws IOException {
+        return read(input);
+    }
+
+    default VersionedMappingDataContainer read(File input, int parallelism) throws IOException {
+        return read(input.toPath(), parallelism);
+    }
+
+    /**
+     * Opens the mapping data for reading. Unlike {@link #read(Path, int)}, the format may choose to decode the data
+     * lazily as it is accessed, which is preferable when only a part of the data will be looked up.
+     *
+     * <p>If the returned container is {@link java.io.Closeable}, it holds resources open for decoding the data, and
+     * should be closed once it is no longer used.</p>
+     *
+     * @param input       the input path
+     * @param parallelism the maximum amount of threads to use, if the data is read eagerly
+     * @return the mapping data
+     * @throws IOException if an I/O exception occurs while opening
+     */
+    default VersionedMappingDataContainer open(Path input, int parallelism) throws IOException {
+        return read(input, parallelism);
+    }
+
+    default VersionedMappingDataContainer open(File input, int parallelism) throws IOException {
+        return open(input.toPath(), parallelism);
+    }
 }
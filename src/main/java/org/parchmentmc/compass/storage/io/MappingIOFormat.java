@@ -1,5 +1,6 @@
 package org.parchmentmc.compass.storage.io;
 
+import org.parchmentmc.compass.storage.io.binary.BinaryDataIO;
 import org.parchmentmc.compass.storage.io.enigma.EnigmaFormattedExplodedIO;
 import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
 
@@ -8,8 +9,11 @@ import java.nio.file.Path;
 
 public enum MappingIOFormat implements MappingDataIO {
     MDC_SINGLE(true, SingleFileDataIO.INSTANCE),
+    MDC_SINGLE_COMPRESSED(true, SingleFileDataIO.COMPRESSED_INSTANCE),
     MDC_EXPLODED(false, ExplodedDataIO.INSTANCE),
-    ENIGMA_EXPLODED(false, EnigmaFormattedExplodedIO.INSTANCE);
+    ENIGMA_EXPLODED(false, EnigmaFormattedExplodedIO.INSTANCE),
+    MDC_BINARY(true, BinaryDataIO.INSTANCE),
+    MDC_ZIP(true, ZipDataIO.INSTANCE);
 
     private final boolean fileBased;
     private final MappingDataIO dataIO;
@@ -32,8 +36,23 @@ public enum MappingIOFormat implements MappingDataIO {
         dataIO.write(data, output);
     }
 
+    @Override
+    public void write(VersionedMappingDataContainer data, Path output, int parallelism) throws IOException {
+        dataIO.write(data, output, parallelism);
+    }
+
     @Override
     public VersionedMappingDataContainer read(Path input) throws IOException {
         return dataIO.read(input);
     }
+
+    @Override
+    public VersionedMappingDataContainer read(Path input, int parallelism) throws IOException {
+        return dataIO.read(input, parallelism);
+    }
+
+    @Override
+    public VersionedMappingDataContainer open(Path input, int parallelism) throws IOException {
+        return dataIO.open(input, parallelism);
+    }
 }
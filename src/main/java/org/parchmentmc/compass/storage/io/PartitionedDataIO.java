@@ -0,0 +1,37 @@
+package org.parchmentmc.compass.storage.io;
+
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.PackageData;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A directory-based format which spreads the classes over many files, each of which can be read on its own.
+ */
+public interface PartitionedDataIO {
+    /**
+     * Lists the files holding the classes, in a stable order.
+     *
+     * @param base the base directory of the data
+     * @return the sorted list of class files
+     * @throws IOException if an I/O exception occurs while listing the files
+     */
+    List<Path> listClassFiles(Path base) throws IOException;
+
+    /**
+     * Reads the classes held in the given class file.
+     *
+     * @param file the class file, as listed by {@link #listClassFiles(Path)}
+     * @return the classes in the file
+     * @throws IOException if an I/O exception occurs while reading the file
+     */
+    Collection<? extends ClassData> readClassFile(Path file) throws IOException;
+
+    SimpleVersion readVersion(Path base) throws IOException;
+
+    Collection<? extends PackageData> readPackages(Path base) throws IOException;
+}
@@ -1,26 +1,67 @@
 package org.parchmentmc.compass.storage.io;
 
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
 import okio.BufferedSink;
 import okio.BufferedSource;
+import okio.ByteString;
+import okio.GzipSource;
 import okio.Okio;
 import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.PackageData;
 import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
-public class SingleFileDataIO implements MappingDataIO {
+/**
+ * Reads and writes mapping data as a single JSON file, optionally compressed with GZIP.
+ *
+ * <p>Compressed files are detected by their header when reading, so any instance can read both compressed and
+ * uncompressed files.</p>
+ */
+public class SingleFileDataIO implements MappingDataIO, StreamingDataIO {
     public static final SingleFileDataIO INSTANCE = new SingleFileDataIO(JSONUtil.MOSHI, "  ");
+    public static final SingleFileDataIO COMPRESSED_INSTANCE = new SingleFileDataIO(JSONUtil.MOSHI, "", true,
+            Deflater.BEST_COMPRESSION);
+
+    private static final JsonReader.Options KEYS = JsonReader.Options.of("version", "packages", "classes");
+    private static final ByteString GZIP_MAGIC = ByteString.of((byte) 0x1f, (byte) 0x8b);
 
     private final Moshi moshi;
     private final String indent;
+    private final boolean compressed;
+    private final int compressionLevel;
 
     public SingleFileDataIO(Moshi moshi, String indent) {
+        this(moshi, indent, false, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param moshi            the Moshi instance for (de)serializing the data
+     * @param indent           the indentation for the written JSON
+     * @param compressed       whether to compress the written file with GZIP
+     * @param compressionLevel the {@linkplain Deflater#setLevel(int) compression level}, if compressed
+     */
+    public SingleFileDataIO(Moshi moshi, String indent, boolean compressed, int compressionLevel) {
+        if ((compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)
+                && compressionLevel != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
         this.moshi = moshi;
         this.indent = indent;
+        this.compressed = compressed;
+        this.compressionLevel = compressionLevel;
     }
 
     @Override
@@ -28,18 +69,131 @@ public class SingleFileDataIO implements MappingDataIO {
         Files.deleteIfExists(output);
         if (output.getParent() != null) Files.createDirectories(output.getParent());
 
-        try (BufferedSink sink = Okio.buffer(Okio.sink(output))) {
+        try (BufferedSink sink = sink(output)) {
             moshi.adapter(VersionedMappingDataContainer.class).indent(indent).toJson(sink, data);
         }
     }
 
     @Override
     public VersionedMappingDataContainer read(Path input) throws IOException {
-        try (BufferedSource source = Okio.buffer(Okio.source(input))) {
+        try (BufferedSource source = source(input)) {
             VersionedMappingDataContainer data = moshi.adapter(VersionedMappingDataContainer.class)
                     .indent(indent).fromJson(source);
             Objects.requireNonNull(data, "Data from " + input + " was deserialized as null");
             return data;
         }
     }
+
+    private BufferedSink sink(Path output) throws IOException {
+        final OutputStream out = Files.newOutputStream(output);
+        if (!compressed) return Okio.buffer(Okio.sink(out));
+
+        try {
+            return Okio.buffer(Okio.sink(new GZIPOutputStream(out, 8192) {
+                {
+                    def.setLevel(compressionLevel);
+                }
+            }));
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private static BufferedSource source(Path input) throws IOException {
+        final BufferedSource source = Okio.buffer(Okio.source(input));
+        try {
+            if (source.rangeEquals(0, GZIP_MAGIC)) {
+                return Okio.buffer(new GzipSource(source));
+            }
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+        return source;
+    }
+
+    @Override
+    public void read(Path input, Visitor visitor) throws IOException {
+        final JsonAdapter<SimpleVersion> versionAdapter = moshi.adapter(SimpleVersion.class);
+        final JsonAdapter<PackageData> packageAdapter = moshi.adapter(PackageData.class);
+        final JsonAdapter<ClassData> classAdapter = moshi.adapter(ClassData.class);
+
+        try (JsonReader reader = JsonReader.of(source(input))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(KEYS)) {
+                    case 0: // version
+                        visitor.visitVersion(nonNull(versionAdapter.fromJson(reader), reader));
+                        break;
+                    case 1: // packages
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            visitor.visitPackage(nonNull(packageAdapter.fromJson(reader), reader));
+                        }
+                        reader.endArray();
+                        break;
+                    case 2: // classes
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            visitor.visitClass(nonNull(classAdapter.fromJson(reader), reader));
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    private static <T> T nonNull(T value, JsonReader reader) {
+        if (value == null) throw new JsonDataException("Unexpected null at " + reader.getPath());
+        return value;
+    }
+
+    @Override
+    public ClassWriter openWriter(Path output, SimpleVersion version, Collection<? extends PackageData> packages)
+            throws IOException {
+        Files.deleteIfExists(output);
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+
+        final JsonAdapter<ClassData> classAdapter = moshi.adapter(ClassData.class);
+        final JsonWriter writer = JsonWriter.of(sink(output));
+        try {
+            writer.setIndent(indent);
+            writer.beginObject();
+            writer.name("version");
+            moshi.adapter(SimpleVersion.class).toJson(writer, version);
+            writer.name("packages").beginArray();
+            final JsonAdapter<PackageData> packageAdapter = moshi.adapter(PackageData.class);
+            for (PackageData pkg : packages) {
+                packageAdapter.toJson(writer, pkg);
+            }
+            writer.endArray();
+            writer.name("classes").beginArray();
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+
+        return new ClassWriter() {
+            @Override
+            public void write(ClassData classData) throws IOException {
+                classAdapter.toJson(writer, classData);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    writer.endArray();
+                    writer.endObject();
+                } finally {
+                    writer.close();
+                }
+            }
+        };
+    }
 }
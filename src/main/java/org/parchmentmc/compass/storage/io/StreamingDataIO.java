@@ -0,0 +1,60 @@
+package org.parchmentmc.compass.storage.io;
+
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.PackageData;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A format which can read and write mapping data one class at a time, without materializing the whole container.
+ */
+public interface StreamingDataIO {
+    /**
+     * Reads the mapping data, passing each element to the visitor as soon as it is read.
+     *
+     * @param input   the input path
+     * @param visitor the visitor for the read elements
+     * @throws IOException if an I/O exception occurs while reading, or one is thrown by the visitor
+     */
+    void read(Path input, Visitor visitor) throws IOException;
+
+    /**
+     * Opens a writer for the mapping data, to which classes are written one at a time. The returned writer must be
+     * closed to finish writing the data.
+     *
+     * @param output   the output path
+     * @param version  the format version of the data
+     * @param packages the packages of the data
+     * @return a writer for the classes of the data
+     * @throws IOException if an I/O exception occurs while opening the output
+     */
+    ClassWriter openWriter(Path output, SimpleVersion version, Collection<? extends PackageData> packages) throws IOException;
+
+    default void write(Path output, SimpleVersion version, Collection<? extends PackageData> packages,
+                       Iterator<? extends ClassData> classes) throws IOException {
+        try (ClassWriter writer = openWriter(output, version, packages)) {
+            while (classes.hasNext()) {
+                writer.write(classes.next());
+            }
+        }
+    }
+
+    interface Visitor {
+        default void visitVersion(SimpleVersion version) throws IOException {
+        }
+
+        default void visitPackage(PackageData packageData) throws IOException {
+        }
+
+        void visitClass(ClassData classData) throws IOException;
+    }
+
+    interface ClassWriter extends Closeable {
+        void write(ClassData classData) throws IOException;
+    }
+}
@@ -0,0 +1,288 @@
+package org.parchmentmc.compass.storage.io;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.compass.util.ParallelUtil;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.*;
+import java.lang.reflect.ParameterizedType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static com.squareup.moshi.Types.newParameterizedType;
+import static com.squareup.moshi.Types.subtypeOf;
+
+/**
+ * Reads and writes mapping data as a zip archive, with the same entries as the files of the {@link ExplodedDataIO
+ * exploded format}.
+ *
+ * <p>This keeps the per-class layout while being a single file. {@link #open(Path, int)} returns a container which
+ * decodes classes on access through the archive's central directory; it must be closed once it is no longer used.</p>
+ */
+public class ZipDataIO implements MappingDataIO, StreamingDataIO {
+    public static final ZipDataIO INSTANCE = new ZipDataIO(JSONUtil.MOSHI, "  ");
+
+    private static final ParameterizedType PACKAGE_COLLECTION_TYPE =
+            newParameterizedType(Collection.class, subtypeOf(MappingDataContainer.PackageData.class));
+    private static final String INFO = "info.json";
+    private static final String PACKAGES = "packages.json";
+    private static final String CLASSES_PREFIX = "classes/";
+    private static final String EXTENSION = ".json";
+    // Fixed entry timestamps (1980-02-01 00:00:00), so identical data results in identical archives
+    private static final long ENTRY_TIME = new GregorianCalendar(1980, Calendar.FEBRUARY, 1, 0, 0, 0).getTimeInMillis();
+
+    private final Moshi moshi;
+    private final String indent;
+
+    public ZipDataIO(Moshi moshi, String indent) {
+        this.moshi = moshi;
+        this.indent = indent;
+    }
+
+    @Override
+    public void write(VersionedMappingDataContainer data, Path output) throws IOException {
+        write(output, data.getFormatVersion(), data.getPackages(), data.getClasses().iterator());
+    }
+
+    @Override
+    public ClassWriter openWriter(Path output, SimpleVersion version,
+                                  Collection<? extends MappingDataContainer.PackageData> packages) throws IOException {
+        Files.deleteIfExists(output);
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+
+        final ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(output)));
+        try {
+            DataInfo info = new DataInfo();
+            info.version = version;
+            writeEntry(zip, INFO, moshi.adapter(DataInfo.class), info);
+
+            writeEntry(zip, PACKAGES, moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE),
+                    packages);
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+
+        final JsonAdapter<MappingDataContainer.ClassData> classAdapter = moshi.adapter(MappingDataContainer.ClassData.class);
+        return new ClassWriter() {
+            @Override
+            public void write(MappingDataContainer.ClassData classData) throws IOException {
+                writeEntry(zip, CLASSES_PREFIX + classData.getName() + EXTENSION, classAdapter, classData);
+            }
+
+            @Override
+            public void close() throws IOException {
+                zip.close();
+            }
+        };
+    }
+
+    // Skips the entry if nothing is written, such as for an undocumented class, the same as the exploded format
+    private <T> void writeEntry(ZipOutputStream zip, String name, JsonAdapter<T> adapter, T value) throws IOException {
+        try (Buffer buffer = new Buffer()) {
+            adapter.indent(indent).toJson(buffer, value);
+            if (buffer.size() == 0) return;
+
+            final ZipEntry entry = new ZipEntry(name);
+            entry.setTime(ENTRY_TIME);
+            zip.putNextEntry(entry);
+            buffer.writeTo(zip);
+            zip.closeEntry();
+        }
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path input) throws IOException {
+        return read(input, 1);
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path input, int parallelism) throws IOException {
+        try (ZipFile zip = new ZipFile(input.toFile())) {
+            final SimpleVersion version = readInfo(zip);
+            final Collection<? extends MappingDataContainer.PackageData> packages = readPackages(zip);
+
+            final JsonAdapter<MappingDataContainer.ClassData> classAdapter = moshi.adapter(MappingDataContainer.ClassData.class);
+            final List<MappingDataContainer.ClassData> classes = ParallelUtil.map(classEntries(zip), parallelism,
+                    entry -> readEntry(zip, entry, classAdapter));
+
+            return new VersionedMDCDelegate<>(version, new ImmutableMappingDataContainer(packages, classes));
+        }
+    }
+
+    @Override
+    public void read(Path input, Visitor visitor) throws IOException {
+        try (ZipFile zip = new ZipFile(input.toFile())) {
+            visitor.visitVersion(readInfo(zip));
+            for (MappingDataContainer.PackageData packageData : readPackages(zip)) {
+                visitor.visitPackage(packageData);
+            }
+
+            final JsonAdapter<MappingDataContainer.ClassData> classAdapter = moshi.adapter(MappingDataContainer.ClassData.class);
+            for (ZipEntry entry : classEntries(zip)) {
+                final MappingDataContainer.ClassData classData = readEntry(zip, entry, classAdapter);
+                if (classData == null) throw new IOException("Entry " + entry.getName() + " did not deserialize");
+                visitor.visitClass(classData);
+            }
+        }
+    }
+
+    @Override
+    public VersionedMappingDataContainer open(Path input, int parallelism) throws IOException {
+        final ZipFile zip = new ZipFile(input.toFile());
+        try {
+            return new ZipMappingDataContainer(zip, readInfo(zip), readPackages(zip), classEntries(zip),
+                    moshi.adapter(MappingDataContainer.ClassData.class));
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    private SimpleVersion readInfo(ZipFile zip) throws IOException {
+        DataInfo info = readEntry(zip, requireEntry(zip, INFO), moshi.adapter(DataInfo.class));
+        if (info == null || info.version == null) throw new IOException(INFO + " did not deserialize");
+        return info.version;
+    }
+
+    private Collection<? extends MappingDataContainer.PackageData> readPackages(ZipFile zip) throws IOException {
+        Collection<? extends MappingDataContainer.PackageData> packages = readEntry(zip, requireEntry(zip, PACKAGES),
+                moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE));
+        if (packages == null) throw new IOException(PACKAGES + " did not deserialize");
+        return packages;
+    }
+
+    private static ZipEntry requireEntry(ZipFile zip, String name) throws IOException {
+        final ZipEntry entry = zip.getEntry(name);
+        if (entry == null) throw new FileNotFoundException("Missing entry " + name + " in " + zip.getName());
+        return entry;
+    }
+
+    private static List<ZipEntry> classEntries(ZipFile zip) {
+        final List<ZipEntry> entries = new ArrayList<>();
+        final Enumeration<? extends ZipEntry> enumeration = zip.entries();
+        while (enumeration.hasMoreElements()) {
+            final ZipEntry entry = enumeration.nextElement();
+            if (!entry.isDirectory() && entry.getName().startsWith(CLASSES_PREFIX) && entry.getName().endsWith(EXTENSION)) {
+                entries.add(entry);
+            }
+        }
+        // Sort so the classes are always in the same order, regardless of the order of entries in the archive
+        entries.sort(Comparator.comparing(ZipEntry::getName));
+        return entries;
+    }
+
+    private static <T> T readEntry(ZipFile zip, ZipEntry entry, JsonAdapter<T> adapter) throws IOException {
+        try (BufferedSource source = Okio.buffer(Okio.source(zip.getInputStream(entry)))) {
+            return adapter.fromJson(source);
+        }
+    }
+
+    static class DataInfo {
+        public SimpleVersion version;
+    }
+
+    static class ZipMappingDataContainer implements VersionedMappingDataContainer, Closeable {
+        private final ZipFile zip;
+        private final SimpleVersion version;
+        private final Collection<? extends PackageData> packages;
+        private final Map<String, ZipEntry> entries;
+        private final JsonAdapter<ClassData> classAdapter;
+        private final Map<String, ClassData> decoded = new ConcurrentHashMap<>();
+        private final Collection<ClassData> classes = new AbstractCollection<ClassData>() {
+            @Override
+            public Iterator<ClassData> iterator() {
+                final Iterator<String> names = entries.keySet().iterator();
+                return new Iterator<ClassData>() {
+                    @Override
+                    public boolean hasNext() {
+                        return names.hasNext();
+                    }
+
+                    @Override
+                    public ClassData next() {
+                        return decode(names.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+
+        ZipMappingDataContainer(ZipFile zip, SimpleVersion version, Collection<? extends PackageData> packages,
+                                List<ZipEntry> classEntries, JsonAdapter<ClassData> classAdapter) {
+            this.zip = zip;
+            this.version = version;
+            this.packages = packages;
+            this.classAdapter = classAdapter;
+            this.entries = new LinkedHashMap<>();
+            for (ZipEntry entry : classEntries) {
+                final String name = entry.getName();
+                entries.put(name.substring(CLASSES_PREFIX.length(), name.length() - EXTENSION.length()), entry);
+            }
+        }
+
+        @Override
+        public SimpleVersion getFormatVersion() {
+            return version;
+        }
+
+        @Override
+        public Collection<? extends PackageData> getPackages() {
+            return packages;
+        }
+
+        @Override
+        public @Nullable PackageData getPackage(String packageName) {
+            for (PackageData pkg : packages) {
+                if (pkg.getName().equals(packageName)) return pkg;
+            }
+            return null;
+        }
+
+        @Override
+        public Collection<? extends ClassData> getClasses() {
+            return classes;
+        }
+
+        @Override
+        public @Nullable ClassData getClass(String className) {
+            return entries.containsKey(className) ? decode(className) : null;
+        }
+
+        private ClassData decode(String className) {
+            return decoded.computeIfAbsent(className, name -> {
+                try {
+                    final ClassData data = readEntry(zip, entries.get(name), classAdapter);
+                    if (data == null) throw new IOException("Entry for class " + name + " did not deserialize");
+                    return data;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
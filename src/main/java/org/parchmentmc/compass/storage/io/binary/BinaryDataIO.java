@@ -0,0 +1,71 @@
+package org.parchmentmc.compass.storage.io.binary;
+
+import org.parchmentmc.compass.storage.io.MappingDataIO;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes mapping data as a single compact binary file, with a deduplicated table for all strings.
+ *
+ * <p>This format is not meant to be human-readable or diffable; it is intended for intermediate and cached data, where
+ * loading time matters most.</p>
+ *
+ * <p>{@link #open(Path, int)} memory-maps the file and returns a {@link MappedMappingDataContainer}, which only decodes the
+ * classes which are accessed.</p>
+ */
+public class BinaryDataIO implements MappingDataIO {
+    public static final BinaryDataIO INSTANCE = new BinaryDataIO();
+
+    public BinaryDataIO() {
+    }
+
+    @Override
+    public void write(VersionedMappingDataContainer data, Path output) throws IOException {
+        Files.deleteIfExists(output);
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            BinaryDataWriter.write(data, out);
+        }
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path input) throws IOException {
+        final BinaryDataReader reader = new BinaryDataReader(ByteBuffer.wrap(Files.readAllBytes(input)));
+
+        final List<MappingDataContainer.ClassData> classes = new ArrayList<>(reader.getClassCount());
+        for (int i = 0; i < reader.getClassCount(); i++) {
+            classes.add(reader.readClass(i));
+        }
+
+        return new VersionedMDCDelegate<>(reader.getFormatVersion(),
+                new ImmutableMappingDataContainer(reader.getPackages(), classes));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The file is memory-mapped, and classes are decoded on first access. As the mapping is only released once the
+     * returned container is garbage collected, the file should not be overwritten while the container is in use.</p>
+     */
+    @Override
+    public VersionedMappingDataContainer open(Path input, int parallelism) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            return new MappedMappingDataContainer(
+                    new BinaryDataReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())));
+        }
+    }
+}
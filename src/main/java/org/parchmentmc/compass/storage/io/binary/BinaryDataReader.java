@@ -0,0 +1,187 @@
+package org.parchmentmc.compass.storage.io.binary;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.compass.util.StringPool;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.parchmentmc.compass.storage.io.binary.BinaryFormat.LAYOUT_VERSION;
+import static org.parchmentmc.compass.storage.io.binary.BinaryFormat.MAGIC;
+import static org.parchmentmc.feather.mapping.ImmutableMappingDataContainer.*;
+import static org.parchmentmc.feather.mapping.MappingDataContainer.*;
+
+/*
+ * Helper package-only class, to separate reading
+ *
+ * The header, string offsets, packages and the class index are read on construction. Strings and classes are only
+ * decoded when requested, so that the reader may also be used for random access over a (mapped) buffer.
+ */
+final class BinaryDataReader {
+    private final ByteBuffer buffer;
+    private final SimpleVersion formatVersion;
+    private final int stringCount;
+    private final int stringOffsetsStart;
+    private final int stringDataStart;
+    private final String[] strings;
+    private final List<PackageData> packages;
+    private final String[] classNames;
+    private final int[] classPositions;
+
+    BinaryDataReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            final int magic = buffer.getInt(0);
+            if (magic != MAGIC) throw new IOException("Not a binary mapping data file; unexpected magic " + Integer.toHexString(magic));
+            final int layoutVersion = buffer.getInt(4);
+            if (layoutVersion != LAYOUT_VERSION) throw new IOException("Unsupported binary layout version " + layoutVersion);
+
+            formatVersion = new SimpleVersion(buffer.getInt(8), buffer.getInt(12), buffer.getInt(16));
+
+            stringCount = buffer.getInt(20);
+            stringOffsetsStart = 24;
+            stringDataStart = stringOffsetsStart + (stringCount + 1) * 4;
+            strings = new String[stringCount];
+
+            final Cursor cursor = new Cursor(stringDataStart + buffer.getInt(stringOffsetsStart + stringCount * 4));
+
+            final int packageCount = readVarInt(cursor);
+            final List<PackageData> packages = new ArrayList<>(packageCount);
+            for (int i = 0; i < packageCount; i++) {
+                packages.add(new ImmutablePackageData(readString(cursor), readJavadoc(cursor)));
+            }
+            this.packages = Collections.unmodifiableList(packages);
+
+            final int classCount = readVarInt(cursor);
+            classNames = new String[classCount];
+            classPositions = new int[classCount];
+            for (int i = 0; i < classCount; i++) {
+                classNames[i] = readString(cursor);
+                classPositions[i] = readVarInt(cursor);
+            }
+            // Class offsets are relative to the start of the class data, which immediately follows the index
+            for (int i = 0; i < classCount; i++) {
+                classPositions[i] += cursor.position;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Binary mapping data is truncated", e);
+        }
+    }
+
+    SimpleVersion getFormatVersion() {
+        return formatVersion;
+    }
+
+    List<PackageData> getPackages() {
+        return packages;
+    }
+
+    int getClassCount() {
+        return classNames.length;
+    }
+
+    String getClassName(int index) {
+        return classNames[index];
+    }
+
+    ClassData readClass(int index) throws IOException {
+        try {
+            final Cursor cursor = new Cursor(classPositions[index]);
+
+            final String name = readString(cursor);
+            final List<String> javadoc = readJavadoc(cursor);
+
+            final int fieldCount = readVarInt(cursor);
+            final List<FieldData> fields = new ArrayList<>(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                fields.add(new ImmutableFieldData(readString(cursor), readString(cursor), readJavadoc(cursor)));
+            }
+
+            final int methodCount = readVarInt(cursor);
+            final List<MethodData> methods = new ArrayList<>(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                final String methodName = readString(cursor);
+                final String methodDescriptor = readString(cursor);
+                final List<String> methodJavadoc = readJavadoc(cursor);
+
+                final int paramCount = readVarInt(cursor);
+                final List<ParameterData> params = new ArrayList<>(paramCount);
+                for (int j = 0; j < paramCount; j++) {
+                    final byte paramIndex = buffer.get(cursor.position++);
+                    params.add(new ImmutableParameterData(paramIndex, readNullableString(cursor), readNullableString(cursor)));
+                }
+
+                methods.add(new ImmutableMethodData(methodName, methodDescriptor, methodJavadoc, params));
+            }
+
+            return new ImmutableClassData(name, javadoc, fields, methods);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Binary mapping data for class " + classNames[index] + " is truncated", e);
+        }
+    }
+
+    private List<String> readJavadoc(Cursor cursor) throws IOException {
+        final int lines = readVarInt(cursor);
+        if (lines == 0) return Collections.emptyList();
+        final List<String> javadoc = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            javadoc.add(readString(cursor));
+        }
+        return javadoc;
+    }
+
+    private String readString(Cursor cursor) throws IOException {
+        final String string = readNullableString(cursor);
+        if (string == null) throw new IOException("Unexpected null string at position " + cursor.position);
+        return string;
+    }
+
+    @Nullable
+    private String readNullableString(Cursor cursor) throws IOException {
+        final int ref = readVarInt(cursor);
+        if (ref == 0) return null;
+        return string(ref - 1);
+    }
+
+    private String string(int id) throws IOException {
+        if (id >= stringCount) throw new IOException("String ID " + id + " is out of bounds of " + stringCount + " strings");
+        String string = strings[id];
+        if (string == null) {
+            final int start = buffer.getInt(stringOffsetsStart + id * 4);
+            final int end = buffer.getInt(stringOffsetsStart + (id + 1) * 4);
+            final byte[] bytes = new byte[end - start];
+            final ByteBuffer slice = buffer.duplicate();
+            slice.position(stringDataStart + start);
+            slice.get(bytes);
+            string = StringPool.intern(new String(bytes, StandardCharsets.UTF_8));
+            strings[id] = string;
+        }
+        return string;
+    }
+
+    private int readVarInt(Cursor cursor) throws IOException {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 28) throw new IOException("Malformed varint at position " + cursor.position);
+            b = buffer.get(cursor.position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static final class Cursor {
+        int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+    }
+}
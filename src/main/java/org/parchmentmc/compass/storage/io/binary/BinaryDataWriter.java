@@ -0,0 +1,124 @@
+package org.parchmentmc.compass.storage.io.binary;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.parchmentmc.compass.storage.io.binary.BinaryFormat.*;
+import static org.parchmentmc.feather.mapping.MappingDataContainer.*;
+
+// Helper package-only class, to separate writing
+final class BinaryDataWriter {
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+
+    private BinaryDataWriter() {
+    }
+
+    static void write(VersionedMappingDataContainer data, OutputStream output) throws IOException {
+        new BinaryDataWriter().writeData(data, output);
+    }
+
+    private void writeData(VersionedMappingDataContainer data, OutputStream output) throws IOException {
+        final ByteArrayOutputStream packages = new ByteArrayOutputStream();
+        writeVarInt(packages, data.getPackages().size());
+        for (PackageData pkg : data.getPackages()) {
+            writeString(packages, pkg.getName());
+            writeJavadoc(packages, pkg.getJavadoc());
+        }
+
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        final ByteArrayOutputStream classes = new ByteArrayOutputStream();
+        writeVarInt(index, data.getClasses().size());
+        for (ClassData cls : data.getClasses()) {
+            writeString(index, cls.getName());
+            writeVarInt(index, classes.size());
+            writeClass(classes, cls);
+        }
+
+        final DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(LAYOUT_VERSION);
+
+        final SimpleVersion version = data.getFormatVersion();
+        out.writeInt(version.getMajor());
+        out.writeInt(version.getMinor());
+        out.writeInt(version.getPatch());
+
+        final List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+        out.writeInt(strings.size());
+        int offset = 0;
+        for (String string : strings) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encodedStrings.add(bytes);
+            out.writeInt(offset);
+            offset += bytes.length;
+        }
+        out.writeInt(offset);
+        for (byte[] bytes : encodedStrings) {
+            out.write(bytes);
+        }
+
+        packages.writeTo(out);
+        index.writeTo(out);
+        classes.writeTo(out);
+        out.flush();
+    }
+
+    private void writeClass(ByteArrayOutputStream out, ClassData cls) {
+        writeString(out, cls.getName());
+        writeJavadoc(out, cls.getJavadoc());
+
+        writeVarInt(out, cls.getFields().size());
+        for (FieldData field : cls.getFields()) {
+            writeString(out, field.getName());
+            writeString(out, field.getDescriptor());
+            writeJavadoc(out, field.getJavadoc());
+        }
+
+        writeVarInt(out, cls.getMethods().size());
+        for (MethodData method : cls.getMethods()) {
+            writeString(out, method.getName());
+            writeString(out, method.getDescriptor());
+            writeJavadoc(out, method.getJavadoc());
+
+            writeVarInt(out, method.getParameters().size());
+            for (ParameterData param : method.getParameters()) {
+                out.write(param.getIndex());
+                writeString(out, param.getName());
+                writeString(out, param.getJavadoc());
+            }
+        }
+    }
+
+    private void writeJavadoc(ByteArrayOutputStream out, List<String> javadoc) {
+        writeVarInt(out, javadoc.size());
+        for (String line : javadoc) {
+            writeString(out, line);
+        }
+    }
+
+    private void writeString(ByteArrayOutputStream out, @Nullable String string) {
+        if (string == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        Integer id = stringIds.get(string);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(string, id);
+            strings.add(string);
+        }
+        writeVarInt(out, id + 1);
+    }
+}
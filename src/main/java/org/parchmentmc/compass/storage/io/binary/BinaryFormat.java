@@ -0,0 +1,39 @@
+package org.parchmentmc.compass.storage.io.binary;
+
+import java.io.ByteArrayOutputStream;
+
+/*
+ * Layout of the binary format (all fixed-width integers are big-endian; 'varint' is an unsigned LEB128 integer; a
+ * 'string ref' is a varint of the string ID plus one, where 0 denotes null):
+ *
+ *   int       magic ('MDCB')
+ *   int       layout version
+ *   int       data format version major, minor, and patch
+ *   int       string count (N)
+ *   int[N+1]  string offsets, relative to the start of the string data
+ *   byte[]    string data (UTF-8)
+ *   varint    package count, then per package: string ref name, javadoc
+ *   varint    class count, then per class: string ref name, varint offset relative to the start of the class data
+ *   byte[]    class data, per class:
+ *               string ref name, javadoc,
+ *               varint field count, then per field: string ref name, string ref descriptor, javadoc
+ *               varint method count, then per method: string ref name, string ref descriptor, javadoc,
+ *                 varint parameter count, then per parameter: byte index, string ref name, string ref javadoc
+ *
+ *   javadoc = varint line count, then a string ref per line
+ */
+final class BinaryFormat {
+    static final int MAGIC = 0x4D444342; // MDCB
+    static final int LAYOUT_VERSION = 1;
+
+    private BinaryFormat() { // Prevent instantiation
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,103 @@
+package org.parchmentmc.compass.storage.io.binary;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * A read-only mapping data container over binary mapping data, which decodes each class only when it is first
+ * accessed.
+ *
+ * <p>Class lookups by name go through an index built when the container is created, so the resident heap scales with
+ * the classes actually accessed rather than with the whole data set. Decoded classes are kept for later accesses.</p>
+ *
+ * @see BinaryDataIO#open(java.nio.file.Path, int)
+ */
+public class MappedMappingDataContainer implements VersionedMappingDataContainer {
+    private final BinaryDataReader reader;
+    private final Map<String, Integer> classIndex;
+    private final ClassData[] decoded;
+    private final Collection<ClassData> classes = new ClassesView();
+
+    MappedMappingDataContainer(BinaryDataReader reader) {
+        this.reader = reader;
+        final int classCount = reader.getClassCount();
+        this.classIndex = new HashMap<>(classCount * 4 / 3 + 1);
+        for (int i = 0; i < classCount; i++) {
+            classIndex.putIfAbsent(reader.getClassName(i), i);
+        }
+        this.decoded = new ClassData[classCount];
+    }
+
+    @Override
+    public SimpleVersion getFormatVersion() {
+        return reader.getFormatVersion();
+    }
+
+    @Override
+    public Collection<? extends PackageData> getPackages() {
+        return reader.getPackages();
+    }
+
+    @Override
+    public @Nullable PackageData getPackage(String packageName) {
+        for (PackageData pkg : reader.getPackages()) {
+            if (pkg.getName().equals(packageName)) return pkg;
+        }
+        return null;
+    }
+
+    @Override
+    public Collection<? extends ClassData> getClasses() {
+        return classes;
+    }
+
+    @Override
+    public @Nullable ClassData getClass(String className) {
+        final Integer index = classIndex.get(className);
+        return index != null ? classAt(index) : null;
+    }
+
+    private ClassData classAt(int index) {
+        // Decoded classes are immutable, so a race here only means the same class may be decoded twice
+        ClassData cls = decoded[index];
+        if (cls == null) {
+            try {
+                cls = reader.readClass(index);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            decoded[index] = cls;
+        }
+        return cls;
+    }
+
+    private class ClassesView extends AbstractCollection<ClassData> {
+        @Override
+        public Iterator<ClassData> iterator() {
+            return new Iterator<ClassData>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < decoded.length;
+                }
+
+                @Override
+                public ClassData next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return classAt(next++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return decoded.length;
+        }
+    }
+}
@@ -1,43 +1,40 @@
 package org.parchmentmc.compass.storage.io.enigma;
 
-import com.google.common.base.CharMatcher;
+import com.squareup.moshi.JsonAdapter;
 import com.squareup.moshi.Moshi;
 import com.squareup.moshi.Types;
-import okio.BufferedSink;
+import okio.Buffer;
 import okio.BufferedSource;
 import okio.Okio;
+import org.parchmentmc.compass.storage.io.IncrementalDirectoryWriter;
 import org.parchmentmc.compass.storage.io.MappingDataIO;
+import org.parchmentmc.compass.storage.io.PartitionedDataIO;
+import org.parchmentmc.compass.storage.io.StreamingDataIO;
 import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.compass.util.ParallelUtil;
 import org.parchmentmc.feather.mapping.*;
 import org.parchmentmc.feather.util.SimpleVersion;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.StringWriter;
 import java.lang.reflect.ParameterizedType;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
-import static org.parchmentmc.compass.storage.io.enigma.EnigmaWriter.stripToMostInner;
-import static org.parchmentmc.compass.storage.io.enigma.EnigmaWriter.writeClass;
+import static org.parchmentmc.compass.storage.io.enigma.EnigmaWriter.ClassName;
+import static org.parchmentmc.compass.storage.io.enigma.EnigmaWriter.writeFile;
 import static org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
 
-public class EnigmaFormattedExplodedIO implements MappingDataIO {
+public class EnigmaFormattedExplodedIO implements MappingDataIO, PartitionedDataIO, StreamingDataIO {
     public static final EnigmaFormattedExplodedIO INSTANCE = new EnigmaFormattedExplodedIO(JSONUtil.MOSHI,
             "    ", "mapping");
 
-    static final CharMatcher DOLLAR_SIGN = CharMatcher.is('$');
-    static final Comparator<String> CLASS_NAME_LENGTH_THEN_LEXICOGRAPHICALLY = Comparator
-            .comparingInt(String::length)
-            .thenComparing(Function.identity());
-
     static final String CLASS = "CLASS";
     static final String FIELD = "FIELD";
     static final String METHOD = "METHOD";
@@ -50,151 +47,223 @@ public class EnigmaFormattedExplodedIO implements MappingDataIO {
     private final Moshi moshi;
     private final String jsonIndent;
     private final String extension;
+    private final boolean incremental;
 
     public EnigmaFormattedExplodedIO(Moshi moshi, String jsonIndent, String extension) {
+        this(moshi, jsonIndent, extension, true);
+    }
+
+    /**
+     * @param moshi       the Moshi instance for (de)serializing the version and package data
+     * @param jsonIndent  the indentation for the written JSON files
+     * @param extension   the file extension of the mapping files
+     * @param incremental whether to only touch files whose contents have changed when writing, instead of clearing
+     *                    the output directory and rewriting every file
+     */
+    public EnigmaFormattedExplodedIO(Moshi moshi, String jsonIndent, String extension, boolean incremental) {
         this.moshi = moshi;
         this.jsonIndent = jsonIndent;
         this.extension = extension;
+        this.incremental = incremental;
     }
 
     @Override
     public void write(VersionedMappingDataContainer data, Path base) throws IOException {
-        if (Files.exists(base)) {
-            // noinspection ResultOfMethodCallIgnored
-            Files.walk(base)
-                    .sorted(Comparator.reverseOrder())
-                    .map(Path::toFile)
-                    .forEach(File::delete);
-        }
-        Files.createDirectories(base);
+        write(data, base, 1);
+    }
 
-        // Write out version data
-        try (BufferedSink sink = Okio.buffer(Okio.sink(base.resolve("info.json")))) {
-            DataInfo info = new DataInfo();
-            info.version = data.getFormatVersion();
+    @Override
+    public void write(VersionedMappingDataContainer data, Path base, int parallelism) throws IOException {
+        final IncrementalDirectoryWriter dirWriter = new IncrementalDirectoryWriter(base, incremental);
 
-            moshi.adapter(DataInfo.class).indent(jsonIndent).toJson(sink, info);
-        }
+        // Write out version data
+        DataInfo info = new DataInfo();
+        info.version = data.getFormatVersion();
+        dirWriter.write(base.resolve("info.json"), toJson(moshi.adapter(DataInfo.class), info));
 
         // Write out packages.json
-        try (BufferedSink sink = Okio.buffer(Okio.sink(base.resolve("packages.json")))) {
-            moshi.adapter(PACKAGE_COLLECTION_TYPE).indent(jsonIndent).toJson(sink, data.getPackages());
-        }
+        dirWriter.write(base.resolve("packages.json"),
+                toJson(moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE), data.getPackages()));
+
+        writeClasses(dirWriter, base, data, data.getClasses(), parallelism);
+        dirWriter.finish();
+    }
 
-        // Group classes by their outermost classes (via `$` matching)
-        final Map<String, Set<String>> outerClassesToClasses = data.getClasses().stream()
-                .map(ClassData::getName)
-                .sorted()
-                .collect(Collectors.groupingBy(EnigmaWriter::stripToOuter,
-                        Collectors.toCollection(() -> new TreeSet<>(EnigmaFormattedExplodedIO::compareClassNames))));
+    /**
+     * {@inheritDoc}
+     *
+     * <p>As each outer class is written to its own file along with its inner classes, the classes of an outer class
+     * are held until a class of another outer class is written, and then written out together. If more classes of an
+     * outer class come after its file was written, they are merged into that file by reading it back.</p>
+     */
+    @Override
+    public ClassWriter openWriter(Path base, SimpleVersion version,
+                                  Collection<? extends MappingDataContainer.PackageData> packages) throws IOException {
+        final IncrementalDirectoryWriter dirWriter = new IncrementalDirectoryWriter(base, incremental);
 
-        Set<String> visited = new HashSet<>();
+        DataInfo info = new DataInfo();
+        info.version = version;
+        dirWriter.write(base.resolve("info.json"), toJson(moshi.adapter(DataInfo.class), info));
 
-        // Write out classes
-        for (Map.Entry<String, Set<String>> entry : outerClassesToClasses.entrySet()) {
-            final String outerClass = entry.getKey();
-            final Set<String> classes = entry.getValue();
+        dirWriter.write(base.resolve("packages.json"),
+                toJson(moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE), packages));
 
-            final Path mappingFile = base.resolve(outerClass + '.' + extension);
+        return new ClassWriter() {
+            // Keyed by name, so a later class of the same name replaces the earlier one as when reading
+            private final Map<String, ClassData> pending = new LinkedHashMap<>();
+            private final Set<String> writtenOuterClasses = new HashSet<>();
+            private String pendingOuterClass = null;
 
-            if (mappingFile.getParent() != null) {
-                Files.createDirectories(mappingFile.getParent());
+            @Override
+            public void write(ClassData classData) throws IOException {
+                final String outerClass = new ClassName(classData.getName()).getOuterClass();
+                if (!outerClass.equals(pendingOuterClass)) {
+                    flush();
+                    pendingOuterClass = outerClass;
+                    if (writtenOuterClasses.contains(outerClass)) {
+                        for (ClassData written : readClassFile(base.resolve(outerClass + '.' + extension))) {
+                            pending.put(written.getName(), written);
+                        }
+                    }
+                }
+                pending.put(classData.getName(), classData);
             }
 
-            try (Writer writer = Files.newBufferedWriter(mappingFile)) {
-                visited.add(outerClass);
+            private void flush() throws IOException {
+                if (pendingOuterClass == null) return;
+                writeClasses(dirWriter, base, new ImmutableMappingDataContainer(Collections.emptyList(),
+                        pending.values()), pending.values(), 1);
+                writtenOuterClasses.add(pendingOuterClass);
+                pending.clear();
+            }
 
-                ClassData outerClassData = data.getClass(outerClass);
-                // If the data for the outer class is not there, substitute an empty one
-                if (outerClassData == null) outerClassData = new ImmutableMappingDataContainer.ImmutableClassData(
-                        outerClass, Collections.emptyList(), Collections.emptyList(), Collections.emptyList()
-                );
+            @Override
+            public void close() throws IOException {
+                flush();
+                dirWriter.finish();
+            }
+        };
+    }
 
-                writeClass(writer, 0, outerClass, outerClassData);
+    private void writeClasses(IncrementalDirectoryWriter dirWriter, Path base, MappingDataContainer data,
+                              Collection<? extends ClassData> classes, int parallelism) throws IOException {
+        // Group classes by their outermost classes (via `$` matching), splitting each name only once
+        final Map<String, List<ClassName>> outerClassesToClasses = new HashMap<>();
+        for (ClassData classData : classes) {
+            final ClassName className = new ClassName(classData.getName());
+            outerClassesToClasses.computeIfAbsent(className.getOuterClass(), k -> new ArrayList<>()).add(className);
+        }
 
-                for (String clz : classes) {
-                    if (clz.contentEquals(outerClass)) continue; // Skip the outer class
-                    visited.add(clz);
+        // Write out classes; each outer class file is independent of the others, so they are rendered in parallel
+        ParallelUtil.forEach(new ArrayList<>(outerClassesToClasses.entrySet()), parallelism, entry -> {
+            final String outerClass = entry.getKey();
+            final List<ClassName> names = entry.getValue();
+            names.sort(ClassName::compare);
 
-                    for (String component : EnigmaWriter.expandClass(clz)) {
-                        if (visited.contains(component)) continue; // Skip if it's already been visited
-                        visited.add(component);
-                        if (component.contentEquals(clz)) break; // Skip if it's the class currently being written
+            final Path mappingFile = base.resolve(outerClass + '.' + extension);
 
-                        writeClass(writer, DOLLAR_SIGN.countIn(component), stripToMostInner(component),
-                                new ImmutableMappingDataContainer.ImmutableClassData(
-                                        component, Collections.emptyList(), Collections.emptyList(), Collections.emptyList()
-                                ));
-                    }
+            try (StringWriter writer = new StringWriter()) {
+                writeFile(writer, data, outerClass, names);
+                dirWriter.write(mappingFile, writer.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        });
+    }
 
-                    ClassData clzData = data.getClass(clz);
-                    // If the data for the inner class is not there, substitute an empty one
-                    if (clzData == null) clzData = new ImmutableMappingDataContainer.ImmutableClassData(
-                            clz, Collections.emptyList(), Collections.emptyList(), Collections.emptyList()
-                    );
+    private <T> byte[] toJson(JsonAdapter<T> adapter, T value) throws IOException {
+        try (Buffer buffer = new Buffer()) {
+            adapter.indent(jsonIndent).toJson(buffer, value);
+            return buffer.readByteArray();
+        }
+    }
 
-                    writeClass(writer, DOLLAR_SIGN.countIn(clz), stripToMostInner(clz), clzData);
-                }
+    @Override
+    public VersionedMappingDataContainer read(Path base) throws IOException {
+        return read(base, 1);
+    }
+
+    @Override
+    public VersionedMappingDataContainer read(Path base, int parallelism) throws IOException {
+        final SimpleVersion version = readVersion(base);
+        final Collection<? extends MappingDataContainer.PackageData> packages = readPackages(base);
+
+        // Each file is read into its own builder, so they can be read in parallel without any locking
+        List<Collection<? extends ClassData>> fileClasses = ParallelUtil.map(listClassFiles(base), parallelism,
+                this::readClassFile);
+
+        Map<String, ClassData> classes = new LinkedHashMap<>();
+        for (Collection<? extends ClassData> fileClass : fileClasses) {
+            for (ClassData classData : fileClass) {
+                classes.put(classData.getName(), classData);
             }
         }
+
+        return new VersionedMDCDelegate<>(version, new ImmutableMappingDataContainer(packages, classes.values()));
     }
 
     @Override
-    public VersionedMappingDataContainer read(Path base) throws IOException {
+    public void read(Path base, Visitor visitor) throws IOException {
+        visitor.visitVersion(readVersion(base));
+        for (MappingDataContainer.PackageData packageData : readPackages(base)) {
+            visitor.visitPackage(packageData);
+        }
+        for (Path file : listClassFiles(base)) {
+            for (ClassData classData : readClassFile(file)) {
+                visitor.visitClass(classData);
+            }
+        }
+    }
+
+    @Override
+    public SimpleVersion readVersion(Path base) throws IOException {
         DataInfo info;
         try (BufferedSource source = Okio.buffer(Okio.source(base.resolve("info.json")))) {
             info = moshi.adapter(DataInfo.class).fromJson(source);
         }
         if (info == null) throw new IOException("info.json did not deserialize");
+        return info.version;
+    }
 
+    @Override
+    public Collection<? extends MappingDataContainer.PackageData> readPackages(Path base) throws IOException {
         Collection<? extends MappingDataContainer.PackageData> packages;
         try (BufferedSource source = Okio.buffer(Okio.source(base.resolve("packages.json")))) {
             packages = moshi.<Collection<? extends MappingDataContainer.PackageData>>adapter(PACKAGE_COLLECTION_TYPE).fromJson(source);
         }
         if (packages == null) throw new IOException("packages.json did not deserialize");
+        return packages;
+    }
 
-        MappingDataBuilder builder = new MappingDataBuilder();
+    @Override
+    public List<Path> listClassFiles(Path base) throws IOException {
+        List<Path> mappingFiles = new ArrayList<>();
 
         Files.walkFileTree(base, new SimpleFileVisitor<Path>() {
             @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                 Objects.requireNonNull(file);
                 Objects.requireNonNull(attrs);
                 // Skip files not ending with the extension
-                if (!file.toString().endsWith(extension)) return FileVisitResult.CONTINUE;
-
-                try (BufferedReader reader = Files.newBufferedReader(file)) {
-                    EnigmaReader.readFile(builder, reader);
-                }
+                if (file.toString().endsWith(extension)) mappingFiles.add(file);
 
                 return FileVisitResult.CONTINUE;
             }
         });
+        // Sort so the classes are always merged in the same order, regardless of the directory walk order
+        Collections.sort(mappingFiles);
 
-        return new VersionedMDCDelegate<>(info.version, new ImmutableMappingDataContainer(packages, builder.getClasses()));
-    }
-
-    static class DataInfo {
-        public SimpleVersion version;
+        return mappingFiles;
     }
 
-    static int compareClassNames(String a, String b) {
-        final String[] aComponents = a.split(DOLLAR_SIGN.toString());
-        final String[] bComponents = b.split(DOLLAR_SIGN.toString());
-
-        int ret = 0;
-        int minimum = Math.min(aComponents.length, bComponents.length);
-        for (int i = 0; i < minimum; i++) {
-            String aComp = aComponents[i];
-            String bComp = bComponents[i];
-            ret = CLASS_NAME_LENGTH_THEN_LEXICOGRAPHICALLY.compare(aComp, bComp);
-            if (ret != 0) break;
-        }
-
-        if (ret == 0) {
-            ret = CLASS_NAME_LENGTH_THEN_LEXICOGRAPHICALLY.compare(a, b);
+    @Override
+    public Collection<? extends ClassData> readClassFile(Path file) throws IOException {
+        MappingDataBuilder builder = new MappingDataBuilder();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            EnigmaReader.readFile(builder, reader);
         }
+        return builder.getClasses();
+    }
 
-        return ret;
+    static class DataInfo {
+        public SimpleVersion version;
     }
 }
@@ -1,83 +1,185 @@
 package org.parchmentmc.compass.storage.io.enigma;
 
+import org.parchmentmc.compass.util.StringPool;
 import org.parchmentmc.feather.mapping.MappingDataBuilder;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.*;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 
 import static org.parchmentmc.compass.storage.io.enigma.EnigmaFormattedExplodedIO.*;
 
-// Helper package-only class, to separate reading
+/*
+ * Helper package-only class, to separate reading
+ *
+ * The whole file is read into a char buffer, which is then scanned line by line with a cursor. Keywords are matched
+ * in place (case-insensitively), and only the names, descriptors, and comment texts are turned into strings, which are
+ * taken from the shared string pool.
+ *
+ * As before, a line is trimmed and split into tokens on every single whitespace character, and the text of a comment
+ * is the rest of the trimmed line after the keyword, with any whitespace characters as spaces. Lines which do not start
+ * with a known keyword are ignored.
+ */
 final class EnigmaReader {
     private EnigmaReader() { // Prevent instantiation
     }
 
-    public static void readFile(MappingDataBuilder builder, BufferedReader reader) throws IOException {
-        MappingDataBuilder.MutableClassData classData = null;
-        MappingDataBuilder.MutableMethodData methodData = null;
-        MappingDataBuilder.MutableHasJavadoc<?> javadoc = null;
-        int prevClassIndent = -1;
-        Deque<String> classNames = new ArrayDeque<>();
-
-        String line;
-        while ((line = reader.readLine()) != null) {
-            final String[] tokens = line.trim().split("\\s");
-
-            String firstToken = tokens[0].toUpperCase(Locale.ROOT);
-            switch (firstToken) {
-                case CLASS: {
-                    int indent = countIndent(line);
-                    String className = tokens[1];
-
-                    for (int diff = prevClassIndent - indent; diff >= 0; diff--) {
-                        classNames.pop();
-                    }
-                    prevClassIndent = indent;
-
-                    if (!classNames.isEmpty()) { // Within a class
-                        className = classNames.peek() + '$' + className;
-                    }
-                    classNames.push(className);
-                    javadoc = classData = builder.createClass(className);
-
-                    break;
-                }
-                case FIELD: {
-                    if (classData == null) throw new IOException("Unexpected field line without class parent");
-                    javadoc = classData.createField(tokens[1], tokens[2]);
-                    break;
-                }
-                case METHOD: {
-                    if (classData == null) throw new IOException("Unexpected method line without class parent");
-                    javadoc = methodData = classData.createMethod(tokens[1], tokens[2]);
-                    break;
-                }
-                case PARAM: {
-                    if (methodData == null) throw new IOException("Unexpected arg line without method parent");
-                    javadoc = methodData.createParameter(Byte.parseByte(tokens[1]))
-                            .setName(tokens[2]);
-                    break;
+    public static void readFile(MappingDataBuilder builder, Reader reader) throws IOException {
+        new Scanner(builder, reader).scan();
+    }
+
+    // Matches the whitespace characters of the regex '\s' class
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static final class Scanner {
+        private final MappingDataBuilder builder;
+        private char[] buf = new char[8192];
+        private int length = 0;
+
+        private MappingDataBuilder.MutableClassData classData = null;
+        private MappingDataBuilder.MutableMethodData methodData = null;
+        private MappingDataBuilder.MutableHasJavadoc<?> javadoc = null;
+        private int prevClassIndent = -1;
+        private final Deque<String> classNames = new ArrayDeque<>();
+
+        // Cursor state for the current line
+        private int lineNumber = 0;
+        private int pos;
+        private int end;
+
+        Scanner(MappingDataBuilder builder, Reader reader) throws IOException {
+            this.builder = builder;
+
+            int read;
+            while ((read = reader.read(buf, length, buf.length - length)) != -1) {
+                length += read;
+                if (length == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+        }
+
+        void scan() throws IOException {
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && buf[lineEnd] != '\n' && buf[lineEnd] != '\r') lineEnd++;
+
+                lineNumber++;
+                scanLine(lineStart, lineEnd);
+
+                // Skip over the line terminator, which may be '\n', '\r', or '\r\n'
+                lineStart = lineEnd;
+                if (lineStart < length && buf[lineStart] == '\r') lineStart++;
+                if (lineStart < length && buf[lineStart] == '\n') lineStart++;
+            }
+        }
+
+        private void scanLine(int lineStart, int lineEnd) throws IOException {
+            // Trim, the same as String#trim
+            pos = lineStart;
+            end = lineEnd;
+            while (pos < end && buf[pos] <= ' ') pos++;
+            while (end > pos && buf[end - 1] <= ' ') end--;
+            if (pos == end) return;
+
+            int keywordEnd = pos;
+            while (keywordEnd < end && !isWhitespace(buf[keywordEnd])) keywordEnd++;
+
+            if (keywordIs(CLASS, keywordEnd)) {
+                pos = keywordEnd;
+                int indent = 0;
+                while (buf[lineStart + indent] == '\t') indent++;
+                String className = nextToken();
+
+                for (int diff = prevClassIndent - indent; diff >= 0; diff--) {
+                    classNames.pop();
                 }
-                case COMMENT: {
-                    if (javadoc == null)
-                        throw new IOException("Unexpected comment line without javadoc-holding parent");
-                    final ArrayList<String> strings = new ArrayList<>(Arrays.asList(tokens));
-                    if (strings.size() > 0) {
-                        strings.remove(0);
-                    }
-                    javadoc.addJavadoc(String.join(" ", strings));
-                    break;
+                prevClassIndent = indent;
+
+                if (!classNames.isEmpty()) { // Within a class
+                    className = classNames.peek() + '$' + className;
                 }
+                classNames.push(className);
+                javadoc = classData = builder.createClass(className);
+
+            } else if (keywordIs(FIELD, keywordEnd)) {
+                if (classData == null) throw new IOException("Unexpected field line without class parent");
+                pos = keywordEnd;
+                javadoc = classData.createField(nextToken(), nextToken());
+
+            } else if (keywordIs(METHOD, keywordEnd)) {
+                if (classData == null) throw new IOException("Unexpected method line without class parent");
+                pos = keywordEnd;
+                javadoc = methodData = classData.createMethod(nextToken(), nextToken());
+
+            } else if (keywordIs(PARAM, keywordEnd)) {
+                if (methodData == null) throw new IOException("Unexpected arg line without method parent");
+                pos = keywordEnd;
+                final byte index = nextByte();
+                javadoc = methodData.createParameter(index)
+                        .setName(nextToken());
+
+            } else if (keywordIs(COMMENT, keywordEnd)) {
+                if (javadoc == null)
+                    throw new IOException("Unexpected comment line without javadoc-holding parent");
+                javadoc.addJavadoc(commentText(keywordEnd));
             }
         }
-    }
 
-    public static int countIndent(String line) {
-        int indent = 0;
-        while (line.charAt(indent) == '\t') {
-            indent++;
+        private boolean keywordIs(String keyword, int keywordEnd) {
+            if (keywordEnd - pos != keyword.length()) return false;
+            for (int i = 0; i < keyword.length(); i++) {
+                if (Character.toUpperCase(buf[pos + i]) != keyword.charAt(i)) return false;
+            }
+            return true;
+        }
+
+        // Reads the token after the single whitespace character at the cursor
+        private String nextToken() throws IOException {
+            final int start = tokenStart();
+            return StringPool.intern(new String(buf, start, pos - start));
+        }
+
+        private byte nextByte() throws IOException {
+            final int start = tokenStart();
+            int i = start;
+            final boolean negative = i < pos && buf[i] == '-';
+            if (i < pos && (buf[i] == '-' || buf[i] == '+')) i++;
+            if (i == pos) throw malformed("Expected a number");
+
+            int value = 0;
+            for (; i < pos; i++) {
+                final int digit = Character.digit(buf[i], 10);
+                if (digit < 0) throw malformed("Expected a number");
+                value = value * 10 + digit;
+                if (value > 128) throw malformed("Number is out of range of a byte");
+            }
+            if (negative) value = -value;
+            if (value > Byte.MAX_VALUE) throw malformed("Number is out of range of a byte");
+            return (byte) value;
+        }
+
+        private int tokenStart() throws IOException {
+            if (pos >= end) throw malformed("Missing token");
+            final int start = ++pos; // Skip the separating whitespace
+            while (pos < end && !isWhitespace(buf[pos])) pos++;
+            return start;
+        }
+
+        private String commentText(int keywordEnd) {
+            if (keywordEnd >= end) return "";
+            final int start = keywordEnd + 1;
+            for (int i = start; i < end; i++) {
+                if (isWhitespace(buf[i])) buf[i] = ' ';
+            }
+            return StringPool.intern(new String(buf, start, end - start));
+        }
+
+        private IOException malformed(String message) {
+            return new IOException(message + " on line " + lineNumber);
         }
-        return indent;
     }
 }
@@ -1,5 +1,7 @@
 package org.parchmentmc.compass.storage.io.enigma;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
 
 import java.io.IOException;
@@ -13,37 +15,102 @@ final class EnigmaWriter {
     private EnigmaWriter() { // Prevent instantiation
     }
 
-    public static String stripToOuter(String className) {
-        final int classSeparator = className.indexOf('$');
-        if (classSeparator >= 0) {
-            return className.substring(0, classSeparator);
+    /**
+     * Splits the class name into its components at each {@code $}, the first of which is the outermost class.
+     */
+    public static String[] splitComponents(String className) {
+        int count = 1;
+        for (int i = className.indexOf('$'); i >= 0; i = className.indexOf('$', i + 1)) {
+            count++;
         }
-        return className;
+
+        final String[] components = new String[count];
+        int start = 0;
+        for (int c = 0; c < count - 1; c++) {
+            final int end = className.indexOf('$', start);
+            components[c] = className.substring(start, end);
+            start = end + 1;
+        }
+        components[count - 1] = className.substring(start);
+        return components;
     }
 
-    public static String stripToMostInner(String className) {
-        final int classSeparator = className.lastIndexOf('$');
-        if (classSeparator >= 0) {
-            return className.substring(classSeparator + 1);
+    /**
+     * Compares the split class names component by component, each by length then lexicographically, with enclosing
+     * classes before the classes within them. Sorting by this places every class right after its enclosing classes and
+     * the classes before it within them, in the order they are written.
+     */
+    public static int compareComponents(String[] a, String[] b) {
+        final int minimum = Math.min(a.length, b.length);
+        for (int i = 0; i < minimum; i++) {
+            int ret = Integer.compare(a[i].length(), b[i].length());
+            if (ret == 0) ret = a[i].compareTo(b[i]);
+            if (ret != 0) return ret;
         }
-        return className;
+        return Integer.compare(a.length, b.length);
     }
 
-    public static Set<String> expandClass(String className) {
-        if (className.indexOf('$') == -1) return Collections.emptySet();
-        final Set<String> expandedClasses = new LinkedHashSet<>();
-        String pkg = "";
-        final int packageSeparator = className.lastIndexOf('/');
-        if (packageSeparator > -1) {
-            pkg = className.substring(0, packageSeparator + 1); // Include the /
-            className = className.substring(packageSeparator + 1);
+    /**
+     * Writes the outer class and its inner classes in a single pass, substituting empty classes for any missing outer
+     * or enclosing classes.
+     *
+     * @param writer     the writer
+     * @param data       the mapping data, to look up the class data from
+     * @param outerClass the name of the outer class
+     * @param classes    the classes within the outer class, as {@linkplain #splitComponents(String) split names} sorted
+     *                   by {@link #compareComponents(String[], String[])}
+     */
+    public static void writeFile(Writer writer, MappingDataContainer data, String outerClass,
+                                 List<ClassName> classes) throws IOException {
+        writeClass(writer, 0, outerClass, orEmpty(data.getClass(outerClass)));
+
+        String[] previous = {outerClass};
+        for (ClassName cls : classes) {
+            final String[] components = cls.components;
+            if (components.length == 1) continue; // Skip the outer class
+
+            // Write out any enclosing classes which were not written before this one
+            int common = 1;
+            while (common < previous.length && common < components.length - 1
+                    && previous[common].equals(components[common])) {
+                common++;
+            }
+            for (int depth = common; depth < components.length - 1; depth++) {
+                writeClass(writer, depth, components[depth], EMPTY_CLASS);
+            }
+
+            writeClass(writer, components.length - 1, components[components.length - 1],
+                    orEmpty(data.getClass(cls.name)));
+            previous = components;
         }
-        String prev = null;
-        for (String classComponent : className.split("\\$")) {
-            prev = (prev != null ? prev + "$" : "") + classComponent;
-            expandedClasses.add(pkg + prev);
+    }
+
+    private static MappingDataContainer.ClassData orEmpty(MappingDataContainer.@Nullable ClassData data) {
+        return data != null ? data : EMPTY_CLASS;
+    }
+
+    private static final MappingDataContainer.ClassData EMPTY_CLASS = new ImmutableMappingDataContainer.ImmutableClassData(
+            "", Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    /**
+     * A class name, along with its {@linkplain #splitComponents(String) components}.
+     */
+    public static final class ClassName {
+        final String name;
+        final String[] components;
+
+        public ClassName(String name) {
+            this.name = name;
+            this.components = splitComponents(name);
+        }
+
+        public String getOuterClass() {
+            return components[0];
+        }
+
+        public static int compare(ClassName a, ClassName b) {
+            return compareComponents(a.components, b.components);
         }
-        return expandedClasses;
     }
 
     public static Writer indent(Writer writer, int indent) throws IOException {
@@ -63,11 +130,14 @@ final class EnigmaWriter {
             writeComment(writer, memberIndent, javadoc);
         }
 
-        final Comparator<MappingDataContainer.FieldData> fieldDataComparator = Comparator
-                .comparing(s -> s.getName() + s.getDescriptor());
-        final TreeSet<MappingDataContainer.FieldData> fields = new TreeSet<>(fieldDataComparator);
-        fields.addAll(data.getFields());
+        final List<MappingDataContainer.FieldData> fields = new ArrayList<>(data.getFields());
+        fields.sort(EnigmaWriter::compareFields);
+        MappingDataContainer.FieldData previousField = null;
         for (MappingDataContainer.FieldData field : fields) {
+            // Fields sorting the same as the previous are skipped, as the set previously used for sorting did
+            if (previousField != null && compareFields(previousField, field) == 0) continue;
+            previousField = field;
+
             indent(writer, memberIndent).append(FIELD).append(' ')
                     .append(field.getName()).append(' ').append(field.getDescriptor()).append('\n');
 
@@ -98,6 +168,26 @@ final class EnigmaWriter {
 
     }
 
+    /**
+     * Compares fields by their name and descriptor, as if concatenated, without creating the concatenated strings.
+     */
+    static int compareFields(MappingDataContainer.FieldData a, MappingDataContainer.FieldData b) {
+        final String aName = a.getName();
+        final String aDesc = a.getDescriptor();
+        final String bName = b.getName();
+        final String bDesc = b.getDescriptor();
+        final int aLength = aName.length() + aDesc.length();
+        final int bLength = bName.length() + bDesc.length();
+
+        final int minimum = Math.min(aLength, bLength);
+        for (int i = 0; i < minimum; i++) {
+            final char aChar = i < aName.length() ? aName.charAt(i) : aDesc.charAt(i - aName.length());
+            final char bChar = i < bName.length() ? bName.charAt(i) : bDesc.charAt(i - bName.length());
+            if (aChar != bChar) return aChar - bChar;
+        }
+        return aLength - bLength;
+    }
+
     public static void writeComment(Writer writer, int indent, String comment) throws IOException {
         indent(writer, indent).append(COMMENT);
         if (!comment.isEmpty()) {
@@ -7,10 +7,26 @@ import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.TaskAction;
+import org.parchmentmc.compass.CompassExtension;
+import org.parchmentmc.compass.storage.io.IncrementalDirectoryWriter;
+import org.parchmentmc.compass.storage.io.MappingDataIO;
 import org.parchmentmc.compass.storage.io.MappingIOFormat;
+import org.parchmentmc.compass.storage.io.StreamingDataIO;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
 
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import static org.parchmentmc.feather.mapping.MappingDataContainer.PackageData;
 
 public abstract class CopyData extends DefaultTask {
     public CopyData() {
@@ -31,9 +47,195 @@ public abstract class CopyData extends DefaultTask {
 
     @TaskAction
     public void move() throws IOException {
-        MappingDataContainer staging = getInputFormat().get().read(getInput().get().getAsFile());
+        CompassExtension extension = getProject().getExtensions().getByType(CompassExtension.class);
+
+        copy(getInputFormat().get().getDataIO(), getInput().get().getAsFile().toPath(),
+                getOutputFormat().get(), getOutput().get().getAsFile().toPath(), extension.getIOThreads().get());
+    }
+
+    /**
+     * Copies the data from the input to the output, converting it between the formats if they differ.
+     *
+     * <p>Directory outputs are written incrementally, leaving unchanged files untouched. If the copy fails partway,
+     * an existing file output is left as it was, while a directory output may have some of the changed files written,
+     * but has no files deleted.</p>
+     */
+    static void copy(MappingDataIO inputFormat, Path input, MappingIOFormat outputFormat, Path output,
+                     int parallelism) throws IOException {
+        final MappingDataIO outputIO = outputFormat.getDataIO();
+        if (inputFormat == outputIO) {
+            // Same format, so the files can be copied as-is without parsing them
+            copyAsIs(input, output);
+        } else if (inputFormat instanceof StreamingDataIO && outputIO instanceof StreamingDataIO) {
+            // Transcode class by class, without holding all of the data in memory
+            transcode((StreamingDataIO) inputFormat, input, (StreamingDataIO) outputIO, output,
+                    outputFormat.isFileBased());
+        } else {
+            MappingDataContainer staging = inputFormat.read(input, parallelism);
+
+            outputFormat.write(staging, output, parallelism);
+        }
+    }
+
+    private static void copyAsIs(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            final Path temp = sibling(target, ".tmp");
+            deleteTree(temp);
+            try {
+                Files.copy(source, temp);
+            } catch (IOException | RuntimeException e) {
+                deleteTree(temp, e);
+                throw e;
+            }
+            moveIntoPlace(temp, target);
+            return;
+        }
+
+        if (Files.exists(target) && !Files.isDirectory(target)) Files.delete(target);
 
-        getOutputFormat().get().write(staging, getOutput().get().getAsFile());
+        // Only the changed files are written, and files no longer in the source are only deleted once all are written
+        final IncrementalDirectoryWriter writer = new IncrementalDirectoryWriter(target, true);
+        try (Stream<Path> walk = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (Files.isRegularFile(path)) {
+                    writer.write(target.resolve(source.relativize(path).toString()), Files.readAllBytes(path));
+                }
+            }
+        }
+        writer.finish();
     }
 
+    private static void transcode(StreamingDataIO inputFormat, Path input, StreamingDataIO outputFormat,
+                                  Path output, boolean fileBased) throws IOException {
+        if (!fileBased) {
+            // The directory formats only write the changed files, and only delete the rest once the writer is closed
+            if (Files.exists(output) && !Files.isDirectory(output)) Files.delete(output);
+            final Transcoder transcoder = new Transcoder(outputFormat, output);
+            inputFormat.read(input, transcoder);
+            transcoder.finish();
+            return;
+        }
+
+        // Writes to a temporary sibling of the output, which is only moved into place once the transcoding succeeded
+        final Path temp = sibling(output, ".tmp");
+        deleteTree(temp);
+
+        final Transcoder transcoder = new Transcoder(outputFormat, temp);
+        try {
+            inputFormat.read(input, transcoder);
+            transcoder.finish();
+        } catch (Throwable e) {
+            transcoder.abort(e);
+            deleteTree(temp, e);
+            throw e;
+        }
+
+        moveIntoPlace(temp, output);
+    }
+
+    private static Path sibling(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        // A directory cannot be replaced by a move, so any existing one is moved aside until the move succeeded
+        Path old = null;
+        if (Files.isDirectory(target)) {
+            old = sibling(target, ".old");
+            deleteTree(old);
+            Files.move(target, old);
+        }
+
+        try {
+            try {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (old != null) {
+                try {
+                    Files.move(old, target);
+                } catch (IOException | RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+
+        if (old != null) deleteTree(old);
+    }
+
+    private static void deleteTree(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void deleteTree(Path path, Throwable cause) {
+        try {
+            deleteTree(path);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // Opens the writer once the version and packages are read, which all streaming formats visit before the classes
+    private static class Transcoder implements StreamingDataIO.Visitor {
+        private final StreamingDataIO output;
+        private final Path outputPath;
+        private final List<PackageData> packages = new ArrayList<>();
+        private SimpleVersion version = null;
+        private StreamingDataIO.ClassWriter writer = null;
+        private boolean closed = false;
+
+        Transcoder(StreamingDataIO output, Path outputPath) {
+            this.output = output;
+            this.outputPath = outputPath;
+        }
+
+        @Override
+        public void visitVersion(SimpleVersion version) {
+            this.version = version;
+        }
+
+        @Override
+        public void visitPackage(PackageData packageData) throws IOException {
+            if (writer != null) throw new IOException("Unexpected package " + packageData.getName() + " after classes");
+            packages.add(packageData);
+        }
+
+        @Override
+        public void visitClass(ClassData classData) throws IOException {
+            openWriter().write(classData);
+        }
+
+        private StreamingDataIO.ClassWriter openWriter() throws IOException {
+            if (writer == null) {
+                if (version == null) throw new IOException("Missing format version before classes");
+                writer = output.openWriter(outputPath, version, packages);
+            }
+            return writer;
+        }
+
+        void finish() throws IOException {
+            final StreamingDataIO.ClassWriter writer = openWriter();
+            closed = true;
+            writer.close();
+        }
+
+        // Closes the writer of a file output to release its resources, as its output is discarded anyways
+        void abort(Throwable cause) {
+            if (writer == null || closed) return;
+            closed = true;
+            try {
+                writer.close();
+            } catch (IOException | RuntimeException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
 }
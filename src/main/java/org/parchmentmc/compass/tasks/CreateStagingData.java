@@ -12,11 +12,13 @@ import org.gradle.api.tasks.options.Option;
 import org.parchmentmc.compass.CompassExtension;
 import org.parchmentmc.compass.CompassPlugin;
 import org.parchmentmc.compass.storage.input.InputsReader;
+import org.parchmentmc.compass.storage.io.CachingDataIO;
 import org.parchmentmc.compass.storage.io.MappingIOFormat;
 import org.parchmentmc.compass.util.MappingUtil;
 import org.parchmentmc.feather.mapping.MappingDataBuilder;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
 
+import java.io.Closeable;
 import java.io.IOException;
 
 import static org.parchmentmc.feather.mapping.MappingDataBuilder.*;
@@ -36,7 +38,8 @@ public abstract class CreateStagingData extends DefaultTask {
     @TaskAction
     public void create() throws IOException {
         CompassPlugin plugin = getProject().getPlugins().getPlugin(CompassPlugin.class);
-        InputsReader inputsReader = new InputsReader(plugin.getIntermediates());
+        CompassExtension extension = getProject().getExtensions().getByType(CompassExtension.class);
+        InputsReader inputsReader = new InputsReader(plugin.getIntermediates(), plugin.getMappingCache());
         final IMappingFile officialMap = plugin.getObfuscationMapsDownloader().getObfuscationMap().get();
         /*
          * Three parts:
@@ -50,14 +53,21 @@ public abstract class CreateStagingData extends DefaultTask {
          */
 
         MappingDataBuilder data = MappingUtil.loadOfficialData(officialMap);
-        MappingDataContainer baseTaskData = getBaseDataFormat().get().read(getBaseDataDirectory().get().getAsFile());
-        MappingDataContainer inputData = inputsReader.parse(getInputsDirectory().get().getAsFile().toPath());
+        MappingDataContainer baseTaskData = CachingDataIO.wrap(getBaseDataFormat().get(),
+                extension.getDataCache().get().getAsFile().toPath()).open(getBaseDataDirectory().get().getAsFile(),
+                extension.getIOThreads().get());
+        try {
+            apply(data, baseTaskData, InputMode.OVERWRITE);
+        } finally {
+            if (baseTaskData instanceof Closeable) ((Closeable) baseTaskData).close();
+        }
+        MappingDataContainer inputData = inputsReader.parse(getInputsDirectory().get().getAsFile().toPath(),
+                extension.getIOThreads().get());
 
-        apply(data, baseTaskData, InputMode.OVERWRITE);
         apply(data, inputData, getInputMode().get());
-        MappingUtil.removeUndocumented(data);
+        MappingUtil.removeUndocumented(data, extension.getIOThreads().get());
 
-        getOutputFormat().get().write(data, getOutputDirectory().get().getAsFile());
+        getOutputFormat().get().write(data, getOutputDirectory().get().getAsFile(), extension.getIOThreads().get());
     }
 
     @InputDirectory
@@ -8,16 +8,23 @@ import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
-import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 import org.jetbrains.annotations.Nullable;
+import org.parchmentmc.compass.CompassExtension;
 import org.parchmentmc.compass.CompassPlugin;
 import org.parchmentmc.compass.providers.IntermediateProvider;
+import org.parchmentmc.compass.storage.OverlayMappingDataBuilder;
+import org.parchmentmc.compass.storage.io.CachingDataIO;
 import org.parchmentmc.compass.storage.io.MappingIOFormat;
 import org.parchmentmc.compass.storage.io.SingleFileDataIO;
+import org.parchmentmc.compass.util.MappingCache;
+import org.parchmentmc.compass.util.MappingDataAdapters;
 import org.parchmentmc.compass.util.MappingUtil;
+import org.parchmentmc.compass.util.MetadataIndex;
+import org.parchmentmc.compass.util.RemapIndex;
 import org.parchmentmc.compass.util.download.BlackstoneDownloader;
+import org.parchmentmc.compass.util.download.ObfuscationMapsDownloader;
 import org.parchmentmc.feather.io.moshi.MDCMoshiAdapter;
 import org.parchmentmc.feather.io.moshi.SimpleVersionAdapter;
 import org.parchmentmc.feather.mapping.MappingDataBuilder;
@@ -26,21 +33,26 @@ import org.parchmentmc.feather.metadata.BouncingTargetMetadata;
 import org.parchmentmc.feather.metadata.ClassMetadata;
 import org.parchmentmc.feather.metadata.MethodMetadata;
 import org.parchmentmc.feather.metadata.MethodReference;
-import org.parchmentmc.feather.metadata.SourceMetadata;
 import org.parchmentmc.feather.named.Named;
 
 import java.io.IOException;
-import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.function.Supplier;
+import java.util.zip.Deflater;
 
 public abstract class GenerateExport extends DefaultTask {
-    private static final SingleFileDataIO IO = new SingleFileDataIO(new Moshi.Builder()
+    private static final Moshi MOSHI = new Moshi.Builder()
+            .add(MappingDataAdapters.factory())
             .add(new MDCMoshiAdapter(true))
-            .add(new SimpleVersionAdapter()).build(), "  ");
+            .add(new SimpleVersionAdapter()).build();
+    private static final SingleFileDataIO IO = new SingleFileDataIO(MOSHI, "  ");
 
     public GenerateExport() {
-        getOutput().convention(getProject().getLayout().getBuildDirectory().dir(getName()).map(d -> d.file("export.json")));
+        getCompress().convention(Boolean.FALSE);
+        getCompressionLevel().convention(Deflater.BEST_COMPRESSION);
+        getOutput().convention(getProject().getLayout().getBuildDirectory().dir(getName())
+                .zip(getCompress(), (d, compress) -> d.file(compress ? "export.json.gz" : "export.json")));
         getUseBlackstone().convention(Boolean.FALSE);
 
         onlyIf(_t -> getInput().get().getAsFile().exists());
@@ -49,27 +61,36 @@ public abstract class GenerateExport extends DefaultTask {
     @TaskAction
     public void export() throws IOException {
         CompassPlugin plugin = getProject().getPlugins().getPlugin(CompassPlugin.class);
-        IMappingFile officialMap = plugin.getObfuscationMapsDownloader().getObfuscationMap().get(); // moj -> obf
+        CompassExtension extension = getProject().getExtensions().getByType(CompassExtension.class);
+        ObfuscationMapsDownloader obfuscationMaps = plugin.getObfuscationMapsDownloader();
 
         IntermediateProvider intermediate = plugin.getIntermediates().getByName(getIntermediate().get());
-        IMappingFile mapping = intermediate.getMapping(); // obf -> ?
-        IMappingFile officialToIntermediate = officialMap.chain(mapping); // [moj -> obf] -> [obf -> ?] => moj -> ?
+        IMappingFile officialToIntermediate = plugin.getMappingCache().get("official.chain(" + intermediate.getName() + ")",
+                MappingCache.combineHashes(obfuscationMaps.getObfuscationMapHash().get(), intermediate.getSourceHash()),
+                () -> {
+                    IMappingFile officialMap = obfuscationMaps.getObfuscationMap().get(); // moj -> obf
+                    IMappingFile mapping = intermediate.getMapping(); // obf -> ?
+                    return officialMap.chain(mapping); // [moj -> obf] -> [obf -> ?] => moj -> ?
+                });
 
-        MappingDataContainer data = getInputFormat().get().read(getInput().get().getAsFile());
+        MappingDataContainer data = CachingDataIO.wrap(getInputFormat().get(), extension.getDataCache().get().getAsFile().toPath())
+                .read(getInput().get().getAsFile(), extension.getIOThreads().get());
 
-        MappingDataContainer remappedData = MappingUtil.remapData(data, officialToIntermediate);
+        MappingDataContainer remappedData = MappingUtil.remapData(data, RemapIndex.of(officialToIntermediate));
 
         MappingDataContainer output = modifyData(remappedData);
 
-        IO.write(output, getOutput().get().getAsFile());
+        final SingleFileDataIO io = getCompress().get()
+                ? new SingleFileDataIO(MOSHI, "", true, getCompressionLevel().get())
+                : IO;
+        io.write(output, getOutput().get().getAsFile());
     }
 
     protected MappingDataContainer modifyData(MappingDataContainer container) throws IOException {
-        final MappingDataBuilder builder = MappingDataBuilder.copyOf(container);
-        final SourceMetadata metadata = getSourceMetadata();
-        final Map<String, ClassMetadata> classMetadataMap = MappingUtil.buildClassMetadataMap(metadata);
+        final OverlayMappingDataBuilder builder = new OverlayMappingDataBuilder(container);
+        final MetadataIndex metadataIndex = getMetadataIndex(container);
 
-        builder.getClasses().forEach(clsData -> cascadeParentMethods(builder, classMetadataMap, clsData, classMetadataMap.get(clsData.getName())));
+        builder.getClasses().forEach(clsData -> cascadeParentMethods(builder, metadataIndex, clsData, metadataIndex.getClass(clsData.getName())));
 
         return builder;
     }
@@ -89,19 +110,38 @@ public abstract class GenerateExport extends DefaultTask {
     @Input
     public abstract Property<Boolean> getUseBlackstone();
 
-    @Nullable
-    @Internal
-    protected SourceMetadata getSourceMetadata() throws IOException {
+    /**
+     * Whether to compress the export with GZIP; the output then defaults to {@code export.json.gz}.
+     */
+    @Input
+    public abstract Property<Boolean> getCompress();
+
+    /**
+     * The {@linkplain Deflater#setLevel(int) compression level} used when {@linkplain #getCompress() compressing}.
+     */
+    @Input
+    public abstract Property<Integer> getCompressionLevel();
+
+    /**
+     * Returns an index over the Blackstone metadata, if {@linkplain #getUseBlackstone() used}, which lazily loads the
+     * metadata of the classes of the given data and the classes looked up from them.
+     *
+     * @param data the data to be processed with the metadata
+     * @return the metadata index, which is empty if Blackstone is not used or there is no metadata
+     * @throws IOException if an I/O error occurs while reading the metadata
+     */
+    protected MetadataIndex getMetadataIndex(MappingDataContainer data) throws IOException {
         if (getUseBlackstone().get()) {
             final BlackstoneDownloader blackstoneDownloader = getProject().getPlugins()
                     .getPlugin(CompassPlugin.class).getBlackstoneDownloader();
-            return blackstoneDownloader.retrieveMetadata();
-        } else {
-            return null;
+            final MetadataIndex index = blackstoneDownloader.retrieveMetadataIndex(data.getClasses().stream()
+                    .map(MappingDataContainer.ClassData::getName).collect(Collectors.toList()));
+            if (index != null) return index;
         }
+        return MetadataIndex.of(null);
     }
 
-    protected static void cascadeParentMethods(MappingDataBuilder builder, Map<String, ClassMetadata> classMetadataMap, MappingDataBuilder.MutableClassData clsData, ClassMetadata clsMeta) {
+    protected static void cascadeParentMethods(OverlayMappingDataBuilder builder, MetadataIndex metadataIndex, MappingDataContainer.ClassData clsData, @Nullable ClassMetadata clsMeta) {
         if (clsMeta == null)
             return;
         // We need to cascade data using the class metadata methods because methods with no mapped data will not be present in ClassData#getMethods()
@@ -116,8 +156,8 @@ public abstract class GenerateExport extends DefaultTask {
                     .<Supplier<MappingDataBuilder.MutableMethodData>>map(ref -> () ->
                             builder.getOrCreateClass(getMojangName(ref.getOwner()))
                                     .getOrCreateMethod(getMojangName(ref.getName()), getMojangName(ref.getDescriptor())))
-                    .orElse(() -> clsData.getOrCreateMethod(name, desc));
-            GenerateExport.cascadeParentMethod(builder, classMetadataMap, methodMeta, supplier);
+                    .orElse(() -> builder.getOrCreateClass(clsData.getName()).getOrCreateMethod(name, desc));
+            GenerateExport.cascadeParentMethod(builder, metadataIndex, methodMeta, supplier);
         });
     }
 
@@ -125,18 +165,16 @@ public abstract class GenerateExport extends DefaultTask {
      * This code cascades parameters and javadocs from parent methods,
      * stopping at the first one that has something populated.
      */
-    private static void cascadeParentMethod(MappingDataBuilder builder, Map<String, ClassMetadata> classMetadataMap, MethodMetadata methodMeta,
+    private static void cascadeParentMethod(OverlayMappingDataBuilder builder, MetadataIndex metadataIndex, MethodMetadata methodMeta,
             Supplier<MappingDataBuilder.MutableMethodData> methodDataSupplier) {
         MethodMetadata parentMethodMeta = methodMeta;
-        MappingDataBuilder.MutableMethodData parentMethodData = null;
+        MappingDataContainer.MethodData parentMethodData = null;
 
         while (parentMethodData == null && parentMethodMeta != null && parentMethodMeta.getParent().isPresent()) {
             MethodReference parent = parentMethodMeta.getParent().get();
             // Get the current method metadata so we can get the next parent
-            parentMethodMeta = classMetadataMap.get(getMojangName(parent.getOwner())).getMethods().stream()
-                    .filter(m -> m.getName().getMojangName().equals(parent.getName().getMojangName())
-                            && m.getDescriptor().getMojangName().equals(parent.getDescriptor().getMojangName()))
-                    .findFirst().orElse(null);
+            parentMethodMeta = metadataIndex.getMethod(getMojangName(parent.getOwner()),
+                    getMojangName(parent.getName()), getMojangName(parent.getDescriptor()));
             // Query the actual mapping data to see if the parent method has any javadocs or parameters
             parentMethodData = Optional.ofNullable(builder.getClass(getMojangName(parent.getOwner())))
                     .map(c -> c.getMethod(getMojangName(parent.getName()), getMojangName(parent.getDescriptor())))
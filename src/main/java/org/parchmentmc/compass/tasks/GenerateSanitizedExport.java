@@ -2,15 +2,12 @@ package org.parchmentmc.compass.tasks;
 
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
-import org.parchmentmc.compass.util.MappingUtil;
-import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.compass.storage.OverlayMappingDataBuilder;
+import org.parchmentmc.compass.util.MetadataIndex;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
-import org.parchmentmc.feather.metadata.ClassMetadata;
 import org.parchmentmc.feather.metadata.MethodMetadata;
-import org.parchmentmc.feather.metadata.SourceMetadata;
 
 import java.io.IOException;
-import java.util.Map;
 
 public abstract class GenerateSanitizedExport extends GenerateExport {
     public GenerateSanitizedExport() {
@@ -23,28 +20,26 @@ public abstract class GenerateSanitizedExport extends GenerateExport {
     @Override
     protected MappingDataContainer modifyData(MappingDataContainer container) throws IOException {
         final String paramPrefix = getParameterPrefix().get();
-        final MappingDataBuilder builder = MappingDataBuilder.copyOf(container);
-
-        final SourceMetadata metadata = getSourceMetadata();
+        final OverlayMappingDataBuilder builder = new OverlayMappingDataBuilder(container);
 
         final boolean skipLambdas = getSkipLambdaParameters().get();
         final boolean skipAnonClasses = getSkipAnonymousClassParameters().get();
 
-        final Map<String, ClassMetadata> classMetadataMap = MappingUtil.buildClassMetadataMap(metadata);
+        final MetadataIndex metadataIndex = getMetadataIndex(container);
 
         // Cascade parent methods first separately so that prefixes don't get applied multiple times
-        builder.getClasses().forEach(clsData -> cascadeParentMethods(builder, classMetadataMap, clsData, classMetadataMap.get(clsData.getName())));
+        builder.getClasses().forEach(clsData -> cascadeParentMethods(builder, metadataIndex, clsData, metadataIndex.getClass(clsData.getName())));
 
         builder.getClasses().forEach(clsData -> {
-            final ClassMetadata clsMeta = classMetadataMap.get(clsData.getName());
+            // Only classes with named parameters are modified, so leave the others in the base data
+            if (clsData.getMethods().stream().noneMatch(m -> m.getParameters().stream().anyMatch(p -> p.getName() != null)))
+                return;
 
             boolean anonClass = withinAnonymousClass(clsData.getName());
 
-            clsData.getMethods().forEach(methodData -> {
-                final MethodMetadata methodMeta = clsMeta != null ? clsMeta.getMethods().stream()
-                        .filter(s -> s.getName().getMojangName().orElse("").contentEquals(methodData.getName())
-                                && s.getDescriptor().getMojangName().orElse("").contentEquals(methodData.getDescriptor()))
-                        .findFirst().orElse(null) : null;
+            builder.getOrCreateClass(clsData.getName()).getMethods().forEach(methodData -> {
+                final MethodMetadata methodMeta = metadataIndex.getMethod(clsData.getName(), methodData.getName(),
+                        methodData.getDescriptor());
 
                 // Simple heuristic; if it starts with `lambda$`, it's a lambda.
                 boolean lambda = (methodMeta != null && methodMeta.isLambda())
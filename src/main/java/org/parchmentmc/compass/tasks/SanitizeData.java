@@ -7,12 +7,15 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
 import org.gradle.api.tasks.TaskAction;
+import org.parchmentmc.compass.CompassExtension;
 import org.parchmentmc.compass.CompassPlugin;
+import org.parchmentmc.compass.storage.OverlayMappingDataBuilder;
+import org.parchmentmc.compass.storage.io.CachingDataIO;
 import org.parchmentmc.compass.storage.io.MappingIOFormat;
 import org.parchmentmc.compass.util.DescriptorIndexer;
-import org.parchmentmc.compass.util.MappingUtil;
+import org.parchmentmc.compass.util.MetadataIndex;
+import org.parchmentmc.compass.util.StringPool;
 import org.parchmentmc.compass.util.download.BlackstoneDownloader;
-import org.parchmentmc.feather.mapping.MappingDataBuilder;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
 import org.parchmentmc.feather.metadata.ClassMetadata;
 import org.parchmentmc.feather.metadata.FieldMetadata;
@@ -24,10 +27,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.BitSet;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 
 import static org.parchmentmc.feather.mapping.MappingDataBuilder.*;
+import static org.parchmentmc.feather.mapping.MappingDataContainer.*;
 
 public abstract class SanitizeData extends DefaultTask {
     @InputDirectory
@@ -42,6 +45,7 @@ public abstract class SanitizeData extends DefaultTask {
         final Logger logger = getProject().getLogger();
 
         final CompassPlugin plugin = getProject().getPlugins().getPlugin(CompassPlugin.class);
+        final CompassExtension extension = getProject().getExtensions().getByType(CompassExtension.class);
         final BlackstoneDownloader blackstoneDownloader = plugin.getBlackstoneDownloader();
 
         final SourceMetadata metadata = blackstoneDownloader.retrieveMetadata();
@@ -49,43 +53,47 @@ public abstract class SanitizeData extends DefaultTask {
             logger.warn("No Blackstone metadata loaded, sanitization may not have any effects");
         }
 
-        final MappingDataContainer data = getInputFormat().get().read(input);
+        final StringPool.Statistics poolBefore = StringPool.getStatistics();
+        final MappingDataContainer data = CachingDataIO.wrap(getInputFormat().get(),
+                extension.getDataCache().get().getAsFile().toPath()).read(input, extension.getIOThreads().get());
+        logger.info("{}", StringPool.getStatistics().since(poolBefore));
 
         final Set<String> classesToRemove = new HashSet<>();
-        final Set<MutableFieldData> fieldsToRemove = new HashSet<>();
-        final Set<MutableMethodData> methodsToRemove = new HashSet<>();
+        final Set<String> fieldsToRemove = new HashSet<>();
+        final Set<MethodData> methodsToRemove = new HashSet<>();
         final Set<Byte> paramsToRemove = new HashSet<>();
 
-        final MappingDataBuilder builder = MappingDataBuilder.copyOf(data);
+        // Only the classes which are sanitized are copied from the read data
+        final OverlayMappingDataBuilder builder = new OverlayMappingDataBuilder(data);
 
-        final Map<String, ClassMetadata> classMetadataMap = MappingUtil.buildClassMetadataMap(metadata);
+        final MetadataIndex metadataIndex = MetadataIndex.of(metadata);
         final DescriptorIndexer indexer = new DescriptorIndexer();
 
-        for (final MutableClassData classData : builder.getClasses()) {
-            final ClassMetadata classMeta = classMetadataMap.get(classData.getName());
+        for (final ClassData classData : builder.getClasses()) {
+            final ClassMetadata classMeta = metadataIndex.getClass(classData.getName());
+            MutableClassData mutableClass = null;
             boolean hasRemoved = false;
 
-            for (final MutableFieldData fieldData : classData.getFields()) {
-                final FieldMetadata fieldMeta = classMeta != null ? classMeta.getFields().stream()
-                        .filter(s -> s.getName().getMojangName().orElse("").contentEquals(fieldData.getName()))
-                        .findFirst().orElse(null) : null;
+            for (final FieldData fieldData : classData.getFields()) {
+                final FieldMetadata fieldMeta = metadataIndex.getField(classData.getName(), fieldData.getName());
 
                 // Remove javadocs from synthetic fields
                 if (fieldMeta != null && fieldMeta.hasAccessFlag(AccessFlag.SYNTHETIC) && !fieldData.getJavadoc().isEmpty()) {
                     logger.lifecycle("Dropping synthetic field {}#{}", classData.getName(),
                             fieldData.getName());
-                    fieldsToRemove.add(fieldData);
+                    fieldsToRemove.add(fieldData.getName());
                     hasRemoved = true;
                 }
             }
-            fieldsToRemove.forEach(field -> classData.removeField(field.getName()));
-            fieldsToRemove.clear();
+            if (!fieldsToRemove.isEmpty()) {
+                mutableClass = builder.getOrCreateClass(classData.getName());
+                fieldsToRemove.forEach(mutableClass::removeField);
+                fieldsToRemove.clear();
+            }
 
-            for (final MutableMethodData methodData : classData.getMethods()) {
-                final MethodMetadata methodMeta = classMeta != null ? classMeta.getMethods().stream()
-                        .filter(s -> s.getName().getMojangName().orElse("").contentEquals(methodData.getName())
-                                && s.getDescriptor().getMojangName().orElse("").contentEquals(methodData.getDescriptor()))
-                        .findFirst().orElse(null) : null;
+            for (final MethodData methodData : classData.getMethods()) {
+                final MethodMetadata methodMeta = metadataIndex.getMethod(classData.getName(), methodData.getName(),
+                        methodData.getDescriptor());
 
                 // Only target non-lambda synthetic methods
                 if (methodMeta != null && methodMeta.hasAccessFlag(AccessFlag.SYNTHETIC) && !methodMeta.isLambda()) {
@@ -103,7 +111,7 @@ public abstract class SanitizeData extends DefaultTask {
                 } else {
                     final BitSet indexes = indexer.getIndexes(methodData, methodMeta);
 
-                    for (MutableParameterData paramData : methodData.getParameters()) {
+                    for (ParameterData paramData : methodData.getParameters()) {
                         byte index = paramData.getIndex();
 
                         if (!indexes.get(index)) {
@@ -115,10 +123,13 @@ public abstract class SanitizeData extends DefaultTask {
                         logger.lifecycle("Removing parameters {} from method {}{}#{}", paramsToRemove,
                                 classData.getName(), methodData.getName(), methodData.getDescriptor());
 
-                        paramsToRemove.forEach(methodData::removeParameter);
+                        if (mutableClass == null) mutableClass = builder.getOrCreateClass(classData.getName());
+                        final MutableMethodData mutableMethod = mutableClass.getOrCreateMethod(methodData.getName(),
+                                methodData.getDescriptor());
+                        paramsToRemove.forEach(mutableMethod::removeParameter);
                         paramsToRemove.clear();
 
-                        if (methodData.getJavadoc().isEmpty() && methodData.getParameters().isEmpty()) {
+                        if (mutableMethod.getJavadoc().isEmpty() && mutableMethod.getParameters().isEmpty()) {
                             logger.lifecycle("Dropping empty method {}{}#{}", classData.getName(),
                                     methodData.getName(), methodData.getDescriptor());
 
@@ -128,17 +139,22 @@ public abstract class SanitizeData extends DefaultTask {
                     }
                 }
             }
-            methodsToRemove.forEach(method -> classData.removeMethod(method.getName(), method.getDescriptor()));
-            methodsToRemove.clear();
+            if (!methodsToRemove.isEmpty()) {
+                if (mutableClass == null) mutableClass = builder.getOrCreateClass(classData.getName());
+                for (MethodData method : methodsToRemove) {
+                    mutableClass.removeMethod(method.getName(), method.getDescriptor());
+                }
+                methodsToRemove.clear();
+            }
 
-            if (hasRemoved && classData.getJavadoc().isEmpty()
-                    && classData.getFields().isEmpty() && classData.getMethods().isEmpty()) {
+            if (hasRemoved && mutableClass.getJavadoc().isEmpty()
+                    && mutableClass.getFields().isEmpty() && mutableClass.getMethods().isEmpty()) {
                 logger.lifecycle("Empty class, dropping {}", classData.getName());
                 classesToRemove.add(classData.getName());
             }
         }
         classesToRemove.forEach(builder::removeClass);
 
-        getInputFormat().get().write(builder, input);
+        getInputFormat().get().write(builder, input, extension.getIOThreads().get());
     }
 }
@@ -9,15 +9,18 @@ import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.VerificationTask;
+import org.parchmentmc.compass.CompassExtension;
 import org.parchmentmc.compass.CompassPlugin;
+import org.parchmentmc.compass.storage.io.CachingDataIO;
 import org.parchmentmc.compass.storage.io.MappingIOFormat;
+import org.parchmentmc.compass.util.MetadataIndex;
 import org.parchmentmc.compass.util.ResultContainer;
+import org.parchmentmc.compass.util.StringPool;
 import org.parchmentmc.compass.util.download.BlackstoneDownloader;
 import org.parchmentmc.compass.validation.ValidationIssue;
 import org.parchmentmc.compass.validation.action.DataValidator;
 import org.parchmentmc.compass.validation.impl.*;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
-import org.parchmentmc.feather.metadata.SourceMetadata;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
@@ -42,11 +45,16 @@ public abstract class ValidateData extends DefaultTask implements VerificationTa
         File input = getInput().get().getAsFile();
 
         CompassPlugin plugin = getProject().getPlugins().getPlugin(CompassPlugin.class);
+        CompassExtension extension = getProject().getExtensions().getByType(CompassExtension.class);
         BlackstoneDownloader blackstoneDownloader = plugin.getBlackstoneDownloader();
 
-        final SourceMetadata metadata = blackstoneDownloader.retrieveMetadata();
+        final StringPool.Statistics poolBefore = StringPool.getStatistics();
+        MappingDataContainer data = CachingDataIO.wrap(getInputFormat().get(), extension.getDataCache().get().getAsFile().toPath())
+                .read(input, extension.getIOThreads().get());
 
-        MappingDataContainer data = getInputFormat().get().read(input);
+        // Only the metadata of the validated classes is loaded
+        final MetadataIndex metadata = blackstoneDownloader.retrieveMetadataIndex(data.getClasses().stream()
+                .map(MappingDataContainer.ClassData::getName).collect(Collectors.toList()));
 
         final DataValidator validator = new DataValidator();
         validator.addValidator(new BridgeValidator());
@@ -66,8 +74,10 @@ public abstract class ValidateData extends DefaultTask implements VerificationTa
             logger.lifecycle("Blackstone metadata is loaded");
         }
         logger.lifecycle("Validating mapping data from '{}'", input.getAbsolutePath());
+        logger.info("{}", StringPool.getStatistics().since(poolBefore));
 
-        final ResultContainer<List<? extends ValidationIssue>> results = validator.validate(data, metadata);
+        final ResultContainer<List<? extends ValidationIssue>> results = validator.validate(data,
+                metadata != null ? metadata : MetadataIndex.of(null));
 
         if (results.isEmpty()) {
             logger.lifecycle("No validation issues found.");
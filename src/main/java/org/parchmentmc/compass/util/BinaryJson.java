@@ -0,0 +1,394 @@
+package org.parchmentmc.compass.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/*
+ * Layout (all fixed-width integers are big-endian; 'varint' is an unsigned LEB128 integer):
+ *
+ *   int       magic ('CBJV')
+ *   int       layout version
+ *   int       string count (N)
+ *   int[N+1]  string offsets, relative to the start of the string data
+ *   byte[]    string data (UTF-8)
+ *   value     the root value; a byte tag, followed by:
+ *               NULL, FALSE, TRUE: nothing
+ *               INTEGER: zigzag varint
+ *               DOUBLE: the 8-byte IEEE 754 value
+ *               STRING: varint string ID
+ *               ARRAY: varint element count, then each element value
+ *               OBJECT: varint entry count, then per entry: varint string ID of the key, then the value
+ */
+/**
+ * A compact binary encoding of JSON values, as read by {@link com.squareup.moshi.JsonReader#readJsonValue()}, for
+ * caching large JSON documents which are read on every build.
+ *
+ * <p>Every distinct string, whether an object key or a value, is stored once in a string table, and values refer to
+ * strings by their index. Decoding needs no tokenizing or escape handling, and the decoded value can be turned into
+ * the target type with {@link com.squareup.moshi.JsonAdapter#fromJsonValue(Object)}.</p>
+ *
+ * <p>Objects are decoded to {@link LinkedHashMap}s, arrays to {@link ArrayList}s, and numbers to {@link Double}s, the
+ * same as {@code readJsonValue}.</p>
+ */
+public final class BinaryJson {
+    private static final int MAGIC = 0x43424A56; // CBJV
+    private static final int LAYOUT_VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte ARRAY = 6;
+    private static final byte OBJECT = 7;
+
+    private BinaryJson() {
+    } // Prevent instantiation
+
+    /**
+     * Writes the JSON value to the output. The output is not closed.
+     *
+     * @param value  the JSON value, made of maps with string keys, lists, strings, numbers, booleans, and nulls
+     * @param output the output to write to
+     * @throws IOException              if an I/O error occurs while writing
+     * @throws IllegalArgumentException if the value contains an object which is not a JSON value
+     */
+    public static void write(@Nullable Object value, OutputStream output) throws IOException {
+        final Map<String, Integer> stringIds = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        final ByteArrayOutputStream values = new ByteArrayOutputStream();
+        writeValue(values, value, stringIds, strings);
+
+        final DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(LAYOUT_VERSION);
+
+        final List<byte[]> encodedStrings = new ArrayList<>(strings.size());
+        out.writeInt(strings.size());
+        int offset = 0;
+        for (String string : strings) {
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            encodedStrings.add(bytes);
+            out.writeInt(offset);
+            offset += bytes.length;
+        }
+        out.writeInt(offset);
+        for (byte[] bytes : encodedStrings) {
+            out.write(bytes);
+        }
+
+        values.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Reads a JSON value which was written by {@link #write(Object, OutputStream)}.
+     *
+     * @param buffer the buffer to read from, starting at its current position
+     * @return the JSON value
+     * @throws IOException if the buffer does not contain a valid encoded value
+     * @see #open(ByteBuffer)
+     */
+    @Nullable
+    public static Object read(ByteBuffer buffer) throws IOException {
+        final Document document = open(buffer);
+        return document.read(document.getRootPosition());
+    }
+
+    /**
+     * Opens the encoded JSON values in the buffer for random access. Only the header is read here; strings and values
+     * are only decoded when requested, so only the parts of a large document which are used need to be decoded.
+     *
+     * @param buffer the buffer to read from, starting at its current position
+     * @return the document
+     * @throws IOException if the buffer does not start with a valid header
+     */
+    public static Document open(ByteBuffer buffer) throws IOException {
+        return new Document(buffer.slice());
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, @Nullable Object value, Map<String, Integer> stringIds,
+                                   List<String> strings) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Number) {
+            final double number = ((Number) value).doubleValue();
+            final long integer = (long) number;
+            // Negative zero is not integral here, so it is kept as a double
+            if (integer == number && (integer != 0 || 1 / number > 0)) {
+                out.write(INTEGER);
+                writeVarLong(out, (integer << 1) ^ (integer >> 63));
+            } else {
+                out.write(DOUBLE);
+                final long bits = Double.doubleToRawLongBits(number);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) (bits >>> shift));
+                }
+            }
+        } else if (value instanceof String) {
+            out.write(STRING);
+            writeString(out, (String) value, stringIds, strings);
+        } else if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            out.write(ARRAY);
+            writeVarLong(out, list.size());
+            for (Object element : list) {
+                writeValue(out, element, stringIds, strings);
+            }
+        } else if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            out.write(OBJECT);
+            writeVarLong(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String))
+                    throw new IllegalArgumentException("JSON object key is not a string: " + entry.getKey());
+                writeString(out, (String) entry.getKey(), stringIds, strings);
+                writeValue(out, entry.getValue(), stringIds, strings);
+            }
+        } else {
+            throw new IllegalArgumentException("Not a JSON value: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String string, Map<String, Integer> stringIds,
+                                    List<String> strings) {
+        Integer id = stringIds.get(string);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(string, id);
+            strings.add(string);
+        }
+        writeVarLong(out, id);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Encoded JSON values opened for random access. Values are addressed by their position in the buffer, starting
+     * from the {@linkplain #getRootPosition() root value}.
+     *
+     * <p>A document is safe for use from multiple threads, as long as the underlying buffer is not modified.</p>
+     */
+    public static final class Document {
+        private final ByteBuffer buffer;
+        private final int stringCount;
+        private final int stringOffsetsStart;
+        private final int stringDataStart;
+        private final String[] strings;
+        private final int rootPosition;
+
+        Document(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            try {
+                final int magic = buffer.getInt(0);
+                if (magic != MAGIC) throw new IOException("Not a binary JSON file; unexpected magic " + Integer.toHexString(magic));
+                final int layoutVersion = buffer.getInt(4);
+                if (layoutVersion != LAYOUT_VERSION) throw new IOException("Unsupported binary JSON layout version " + layoutVersion);
+
+                stringCount = buffer.getInt(8);
+                if (stringCount < 0) throw new IOException("Negative binary JSON string count " + stringCount);
+                stringOffsetsStart = 12;
+                stringDataStart = stringOffsetsStart + (stringCount + 1) * 4;
+                strings = new String[stringCount];
+                rootPosition = stringDataStart + buffer.getInt(stringOffsetsStart + stringCount * 4);
+                if (rootPosition >= buffer.limit()) throw new IOException("Truncated binary JSON data");
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Truncated or corrupt binary JSON data", e);
+            }
+        }
+
+        /**
+         * Returns the position of the root value.
+         *
+         * @return the position of the root value
+         */
+        public int getRootPosition() {
+            return rootPosition;
+        }
+
+        /**
+         * Decodes the value at the given position.
+         *
+         * @param position the position of the value
+         * @return the JSON value
+         * @throws IOException if the data at the position is not a valid encoded value
+         */
+        @Nullable
+        public Object read(int position) throws IOException {
+            try {
+                return readValue(at(position));
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Truncated or corrupt binary JSON data", e);
+            }
+        }
+
+        /**
+         * Returns the position of the value of the member with the given key, if the value at the given position is an
+         * object which has that member, without decoding the other members.
+         *
+         * @param objectPosition the position of the object
+         * @param key            the key of the member
+         * @return the position of the member's value, or {@code -1} if not an object or there is no such member
+         * @throws IOException if the data at the position is not a valid encoded value
+         */
+        public int findMember(int objectPosition, String key) throws IOException {
+            try {
+                final ByteBuffer in = at(objectPosition);
+                if (in.get() != OBJECT) return -1;
+                final int size = (int) readVarLong(in);
+                for (int i = 0; i < size; i++) {
+                    final boolean matches = key.equals(string((int) readVarLong(in)));
+                    if (matches) return in.position();
+                    skipValue(in);
+                }
+                return -1;
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Truncated or corrupt binary JSON data", e);
+            }
+        }
+
+        /**
+         * Returns the positions of the elements of the array at the given position, without decoding the elements.
+         *
+         * @param arrayPosition the position of the array
+         * @return the positions of the elements, or {@code null} if the value at the position is not an array
+         * @throws IOException if the data at the position is not a valid encoded value
+         */
+        public int @Nullable [] findElements(int arrayPosition) throws IOException {
+            try {
+                final ByteBuffer in = at(arrayPosition);
+                if (in.get() != ARRAY) return null;
+                final int[] positions = new int[(int) readVarLong(in)];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = in.position();
+                    skipValue(in);
+                }
+                return positions;
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                     | NegativeArraySizeException e) {
+                throw new IOException("Truncated or corrupt binary JSON data", e);
+            }
+        }
+
+        private ByteBuffer at(int position) {
+            final ByteBuffer in = buffer.duplicate();
+            in.position(position);
+            return in;
+        }
+
+        // Strings are decoded on first use; racing threads decode equal strings, which is harmless
+        private String string(int id) {
+            String string = strings[id];
+            if (string == null) {
+                final int start = buffer.getInt(stringOffsetsStart + id * 4);
+                final byte[] bytes = new byte[buffer.getInt(stringOffsetsStart + (id + 1) * 4) - start];
+                final ByteBuffer in = at(stringDataStart + start);
+                in.get(bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+                strings[id] = string;
+            }
+            return string;
+        }
+
+        @Nullable
+        private Object readValue(ByteBuffer in) throws IOException {
+            final byte tag = in.get();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case INTEGER: {
+                    final long zigzag = readVarLong(in);
+                    return (double) ((zigzag >>> 1) ^ -(zigzag & 1));
+                }
+                case DOUBLE:
+                    return in.getDouble();
+                case STRING:
+                    return string((int) readVarLong(in));
+                case ARRAY: {
+                    final int size = (int) readVarLong(in);
+                    final List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(in));
+                    }
+                    return list;
+                }
+                case OBJECT: {
+                    final int size = (int) readVarLong(in);
+                    final Map<String, Object> map = new LinkedHashMap<>((int) (size / 0.75f) + 1);
+                    for (int i = 0; i < size; i++) {
+                        final String key = string((int) readVarLong(in));
+                        map.put(key, readValue(in));
+                    }
+                    return map;
+                }
+                default:
+                    throw new IOException("Unknown binary JSON value tag " + tag + " at " + (in.position() - 1));
+            }
+        }
+
+        private static void skipValue(ByteBuffer in) throws IOException {
+            final byte tag = in.get();
+            switch (tag) {
+                case NULL:
+                case FALSE:
+                case TRUE:
+                    return;
+                case INTEGER:
+                case STRING:
+                    readVarLong(in);
+                    return;
+                case DOUBLE:
+                    in.position(in.position() + 8);
+                    return;
+                case ARRAY: {
+                    final int size = (int) readVarLong(in);
+                    for (int i = 0; i < size; i++) {
+                        skipValue(in);
+                    }
+                    return;
+                }
+                case OBJECT: {
+                    final int size = (int) readVarLong(in);
+                    for (int i = 0; i < size; i++) {
+                        readVarLong(in);
+                        skipValue(in);
+                    }
+                    return;
+                }
+                default:
+                    throw new IOException("Unknown binary JSON value tag " + tag + " at " + (in.position() - 1));
+            }
+        }
+
+        private static long readVarLong(ByteBuffer in) throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint at " + in.position());
+        }
+    }
+}
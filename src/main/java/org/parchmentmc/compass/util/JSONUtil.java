@@ -22,6 +22,7 @@ import java.time.format.DateTimeFormatter;
 public final class JSONUtil {
     public static final Moshi MOSHI = new Moshi.Builder()
             .add(OffsetDateTime.class, new OffsetDateTimeAdapter())
+            .add(MappingDataAdapters.factory())
             .add(new MDCMoshiAdapter(true))
             .add(new SimpleVersionAdapter())
             .add(LinkedHashSetMoshiAdapter.FACTORY)
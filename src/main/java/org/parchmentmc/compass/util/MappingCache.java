@@ -0,0 +1,112 @@
+package org.parchmentmc.compass.util;
+
+import net.minecraftforge.srgutils.IMappingFile;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.gradle.internal.hash.HashUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Caches chained and reversed mapping files on disk, so later builds load the finished mapping file instead of
+ * computing it again.
+ *
+ * <p>Each cached mapping file is stored in the TSRG2 format, under a key derived from the hash of the source artifacts
+ * of the mapping and a recipe which describes how the mapping file was computed from them. A mapping file whose source
+ * hash is not known is always computed, and never cached.</p>
+ */
+public final class MappingCache {
+    // Bump when the stored format changes, to ignore the previously cached files
+    private static final int CACHE_VERSION = 1;
+    private static final String EXTENSION = ".tsrg";
+
+    @Nullable
+    private final Path directory;
+
+    /**
+     * @param directory the directory under which to store the cached mapping files
+     */
+    public MappingCache(Path directory) {
+        this.directory = directory;
+    }
+
+    private MappingCache() {
+        this.directory = null;
+    }
+
+    /**
+     * Returns a cache which always computes the mapping files, and stores nothing.
+     *
+     * @return a cache which caches nothing
+     */
+    public static MappingCache disabled() {
+        return new MappingCache();
+    }
+
+    /**
+     * Combines the given hashes of source artifacts into one, or returns {@code null} if any of them is {@code null}.
+     *
+     * @param hashes the hashes of the source artifacts
+     * @return the combined hash, or {@code null} if any hash is unknown
+     */
+    @Nullable
+    public static String combineHashes(@Nullable String... hashes) {
+        final StringBuilder builder = new StringBuilder();
+        for (String hash : hashes) {
+            if (hash == null) return null;
+            if (builder.length() > 0) builder.append('+');
+            builder.append(hash);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the cached mapping file for the given recipe and source hash, or computes and caches it if it is not
+     * cached yet. If the source hash is {@code null}, the mapping file is computed without touching the cache.
+     *
+     * @param recipe     the description of how the mapping file is computed, such as {@code "srg.reverse.chain(official)"}
+     * @param sourceHash the hash of the source artifacts of the mapping file, or {@code null} if not known
+     * @param factory    the factory which computes the mapping file
+     * @return the cached or computed mapping file
+     * @throws IOException if an I/O error occurs while computing or caching the mapping file
+     */
+    public IMappingFile get(String recipe, @Nullable String sourceHash, IOSupplier<IMappingFile> factory)
+            throws IOException {
+        if (directory == null || sourceHash == null) return factory.get();
+
+        final String key = HashUtil.sha1((CACHE_VERSION + "\n" + recipe + "\n" + sourceHash)
+                .getBytes(StandardCharsets.UTF_8)).asZeroPaddedHexString(40);
+        final Path file = directory.resolve(key + EXTENSION);
+
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                return IMappingFile.load(in);
+            } catch (IOException | RuntimeException e) {
+                // Treat an unreadable cached file as no cache, and compute it again
+            }
+        }
+
+        final IMappingFile mapping = factory.get();
+
+        // Write to a temporary file first, so an interrupted write or a concurrent build never leaves a partial file
+        Files.createDirectories(directory);
+        final Path temp = Files.createTempFile(directory, key, ".tmp");
+        try {
+            mapping.write(temp, IMappingFile.Format.TSRG2, false);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        return mapping;
+    }
+
+    @FunctionalInterface
+    public interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+}
@@ -0,0 +1,323 @@
+package org.parchmentmc.compass.util;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import com.squareup.moshi.Moshi;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
+import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.parchmentmc.feather.mapping.ImmutableMappingDataContainer.*;
+import static org.parchmentmc.feather.mapping.MappingDataContainer.*;
+
+/**
+ * Hand-written JSON readers for the mapping data types, which read the output of the feather
+ * {@link org.parchmentmc.feather.io.moshi.MDCMoshiAdapter}.
+ *
+ * <p>These read directly with the {@link JsonReader}, matching names through {@link JsonReader.Options}, so that
+ * reading only allocates the resulting data objects. Read strings are taken from the {@link StringPool}.</p>
+ *
+ * <p>Writing is delegated to the next adapter for the type, which must be the feather adapter, so that the written
+ * output stays exactly the same as before. In its compact mode, the feather adapter may write nothing at all for
+ * undocumented data, which callers writing single classes rely on.</p>
+ */
+public final class MappingDataAdapters {
+    private static final JsonReader.Options CONTAINER_KEYS = JsonReader.Options.of("version", "packages", "classes");
+    private static final JsonReader.Options PACKAGE_KEYS = JsonReader.Options.of("name", "javadoc");
+    private static final JsonReader.Options CLASS_KEYS = JsonReader.Options.of("name", "javadoc", "fields", "methods");
+    private static final JsonReader.Options FIELD_KEYS = JsonReader.Options.of("name", "descriptor", "javadoc");
+    private static final JsonReader.Options METHOD_KEYS = JsonReader.Options.of("name", "descriptor", "javadoc", "parameters");
+    private static final JsonReader.Options PARAMETER_KEYS = JsonReader.Options.of("index", "name", "javadoc");
+
+    private MappingDataAdapters() { // Prevent instantiation
+    }
+
+    /**
+     * Creates a factory for the mapping data adapters, which must be added to the Moshi builder before the feather
+     * {@link org.parchmentmc.feather.io.moshi.MDCMoshiAdapter} that writes the data.
+     *
+     * @return the adapter factory
+     */
+    public static JsonAdapter.Factory factory() {
+        return new Factory();
+    }
+
+    private static final class Factory implements JsonAdapter.Factory {
+        @Override
+        @Nullable
+        public JsonAdapter<?> create(Type type, Set<? extends Annotation> annotations, Moshi moshi) {
+            if (!annotations.isEmpty()) return null;
+
+            final JsonReadFunction<?> read;
+            if (type == PackageData.class) {
+                read = MappingDataAdapters::readPackage;
+            } else if (type == ClassData.class) {
+                read = MappingDataAdapters::readClass;
+            } else if (type == FieldData.class) {
+                read = MappingDataAdapters::readField;
+            } else if (type == MethodData.class) {
+                read = MappingDataAdapters::readMethod;
+            } else if (type == ParameterData.class) {
+                read = MappingDataAdapters::readParameter;
+            } else if (type == VersionedMappingDataContainer.class) {
+                final JsonAdapter<SimpleVersion> versionAdapter = moshi.adapter(SimpleVersion.class);
+                read = reader -> readContainer(reader, versionAdapter);
+            } else {
+                return null;
+            }
+
+            return new ReadingAdapter<>(read, moshi.nextAdapter(this, type, annotations));
+        }
+    }
+
+    // Reads with the hand-written reader, and writes with the next adapter
+    private static final class ReadingAdapter<T> extends JsonAdapter<T> {
+        private final JsonReadFunction<? extends T> read;
+        private final JsonAdapter<T> next;
+
+        ReadingAdapter(JsonReadFunction<? extends T> read, JsonAdapter<T> next) {
+            this.read = read;
+            this.next = next;
+        }
+
+        @Override
+        @Nullable
+        public T fromJson(JsonReader reader) throws IOException {
+            if (reader.peek() == JsonReader.Token.NULL) return reader.nextNull();
+            return read.read(reader);
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, @Nullable T value) throws IOException {
+            next.toJson(writer, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonReadFunction<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    private static VersionedMappingDataContainer readContainer(JsonReader reader,
+                                                               JsonAdapter<SimpleVersion> versionAdapter)
+            throws IOException {
+        SimpleVersion version = null;
+        List<PackageData> packages = Collections.emptyList();
+        List<ClassData> classes = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(CONTAINER_KEYS)) {
+                case 0:
+                    version = versionAdapter.fromJson(reader);
+                    break;
+                case 1:
+                    packages = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) packages.add(readPackage(reader));
+                    reader.endArray();
+                    break;
+                case 2:
+                    classes = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) classes.add(readClass(reader));
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (version == null) throw new JsonDataException("Missing version at " + reader.getPath());
+        return new VersionedMDCDelegate<>(version, new ImmutableMappingDataContainer(packages, classes));
+    }
+
+    private static PackageData readPackage(JsonReader reader) throws IOException {
+        String name = null;
+        List<String> javadoc = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(PACKAGE_KEYS)) {
+                case 0:
+                    name = StringPool.intern(reader.nextString());
+                    break;
+                case 1:
+                    javadoc = readJavadoc(reader);
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ImmutablePackageData(required(name, "name", reader), javadoc);
+    }
+
+    private static ClassData readClass(JsonReader reader) throws IOException {
+        String name = null;
+        List<String> javadoc = Collections.emptyList();
+        List<FieldData> fields = Collections.emptyList();
+        List<MethodData> methods = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(CLASS_KEYS)) {
+                case 0:
+                    name = StringPool.intern(reader.nextString());
+                    break;
+                case 1:
+                    javadoc = readJavadoc(reader);
+                    break;
+                case 2:
+                    fields = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) fields.add(readField(reader));
+                    reader.endArray();
+                    break;
+                case 3:
+                    methods = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) methods.add(readMethod(reader));
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ImmutableClassData(required(name, "name", reader), javadoc, fields, methods);
+    }
+
+    private static FieldData readField(JsonReader reader) throws IOException {
+        String name = null;
+        String descriptor = null;
+        List<String> javadoc = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(FIELD_KEYS)) {
+                case 0:
+                    name = StringPool.intern(reader.nextString());
+                    break;
+                case 1:
+                    descriptor = StringPool.intern(reader.nextString());
+                    break;
+                case 2:
+                    javadoc = readJavadoc(reader);
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ImmutableFieldData(required(name, "name", reader), required(descriptor, "descriptor", reader),
+                javadoc);
+    }
+
+    private static MethodData readMethod(JsonReader reader) throws IOException {
+        String name = null;
+        String descriptor = null;
+        List<String> javadoc = Collections.emptyList();
+        List<ParameterData> parameters = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(METHOD_KEYS)) {
+                case 0:
+                    name = StringPool.intern(reader.nextString());
+                    break;
+                case 1:
+                    descriptor = StringPool.intern(reader.nextString());
+                    break;
+                case 2:
+                    javadoc = readJavadoc(reader);
+                    break;
+                case 3:
+                    parameters = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) parameters.add(readParameter(reader));
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ImmutableMethodData(required(name, "name", reader), required(descriptor, "descriptor", reader),
+                javadoc, parameters);
+    }
+
+    private static ParameterData readParameter(JsonReader reader) throws IOException {
+        boolean hasIndex = false;
+        byte index = 0;
+        String name = null;
+        String javadoc = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(PARAMETER_KEYS)) {
+                case 0:
+                    // Any byte, the same as the Enigma and input file readers accept
+                    final int value = reader.nextInt();
+                    if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE)
+                        throw new JsonDataException("Parameter index " + value + " out of range at " + reader.getPath());
+                    index = (byte) value;
+                    hasIndex = true;
+                    break;
+                case 1:
+                    name = StringPool.internNullable(nextNullableString(reader));
+                    break;
+                case 2:
+                    javadoc = StringPool.internNullable(nextNullableString(reader));
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasIndex) throw new JsonDataException("Missing index at " + reader.getPath());
+        return new ImmutableParameterData(index, name, javadoc);
+    }
+
+    private static List<String> readJavadoc(JsonReader reader) throws IOException {
+        final List<String> javadoc = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) javadoc.add(StringPool.intern(reader.nextString()));
+        reader.endArray();
+        return javadoc;
+    }
+
+    @Nullable
+    private static String nextNullableString(JsonReader reader) throws IOException {
+        return reader.peek() == JsonReader.Token.NULL ? reader.nextNull() : reader.nextString();
+    }
+
+    private static <T> T required(@Nullable T value, String name, JsonReader reader) {
+        if (value == null) throw new JsonDataException("Missing " + name + " at " + reader.getPath());
+        return value;
+    }
+}
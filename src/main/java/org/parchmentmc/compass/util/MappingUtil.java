@@ -6,11 +6,10 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.parchmentmc.compass.util.download.ObfuscationMapsDownloader;
 import org.parchmentmc.feather.mapping.MappingDataBuilder;
 import org.parchmentmc.feather.mapping.MappingDataContainer;
-import org.parchmentmc.feather.metadata.ClassMetadata;
-import org.parchmentmc.feather.metadata.SourceMetadata;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
@@ -20,7 +19,15 @@ import static org.parchmentmc.feather.mapping.MappingDataBuilder.*;
 
 public class MappingUtil {
 
-    public static IMappingFile loadAndEnsureSuperset(Path client, Path server) {
+    /**
+     * Loads the client and server obfuscation maps, and ensures that the client map is a superset of the server map.
+     *
+     * @param client      the path to the client obfuscation map
+     * @param server      the path to the server obfuscation map
+     * @param parallelism the maximum amount of threads to use for comparing the maps
+     * @return the client obfuscation map
+     */
+    public static IMappingFile loadAndEnsureSuperset(Path client, Path server, int parallelism) {
         IMappingFile clientMap, serverMap;
         try (InputStream clientInput = Files.newInputStream(client);
              InputStream serverInput = Files.newInputStream(server)) {
@@ -30,13 +37,26 @@ public class MappingUtil {
             throw new RuntimeException("Exception while loading client and server obfuscation maps", e);
         }
 
-        boolean superset = isSuperset(serverMap, clientMap);
-        if (!superset) {
-            throw new RuntimeException("'wot'; Client obfuscation map is not a superset of server obfuscation map");
+        // One more entry than reported, to know whether there are more missing entries than reported
+        List<String> missing = findMissingFromSuperset(serverMap, clientMap, MAX_REPORTED_MISSING + 1, parallelism);
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("'wot'; Client obfuscation map is not a superset of server obfuscation map; "
+                    + "missing from client: " + describeMissing(missing));
         }
         return clientMap;
     }
 
+    // Joins up to the maximum amount of reported missing entries, ending with an ellipsis if there are more
+    static String describeMissing(List<String> missing) {
+        if (missing.size() <= MAX_REPORTED_MISSING) return String.join(", ", missing);
+        return String.join(", ", missing.subList(0, MAX_REPORTED_MISSING)) + ", ...";
+    }
+
+    /**
+     * The maximum amount of missing entries reported when a mapping file is not a superset of another.
+     */
+    static final int MAX_REPORTED_MISSING = 10;
+
     /**
      * Returns {@code true} if the {@code superset} mapping file is a superset of the {@code set} mapping file.
      *
@@ -45,55 +65,109 @@ public class MappingUtil {
      * @return {@code true} if {@code superset} is a superset of {@code set}
      */
     static boolean isSuperset(IMappingFile set, IMappingFile superset) {
-        List<String> superSetPackages = superset.getPackages().stream().map(Object::toString).collect(Collectors.toList());
+        return findMissingFromSuperset(set, superset, 1, 1).isEmpty();
+    }
+
+    /**
+     * Returns the first entries of the {@code set} mapping file which are missing from the {@code superset} mapping
+     * file, up to the given limit. The result is empty if {@code superset} is a superset of {@code set}.
+     *
+     * <p>The classes are compared in chunks using up to the given amount of threads, and the missing entries are
+     * reported in the order of the classes in the {@code set} mapping file.</p>
+     *
+     * @param set         The target mapping file
+     * @param superset    The superset mapping file
+     * @param limit       The maximum amount of missing entries to report
+     * @param parallelism The maximum amount of threads to use
+     * @return the missing entries, described as {@code "<kind> <name>"}
+     */
+    static List<String> findMissingFromSuperset(IMappingFile set, IMappingFile superset, int limit, int parallelism) {
+        Set<String> superSetPackages = superset.getPackages().stream().map(Object::toString).collect(Collectors.toSet());
         // Check if all packages are present in superset
-        if (!set.getPackages().stream().map(Object::toString).allMatch(superSetPackages::contains)) return false;
+        List<String> missing = set.getPackages().stream()
+                .map(Object::toString)
+                .filter(pkg -> !superSetPackages.contains(pkg))
+                .limit(limit)
+                .map(pkg -> "package " + pkg)
+                .collect(Collectors.toList());
+        if (missing.size() >= limit) return missing;
+
+        // Each chunk stops at the remaining limit, as the entries of the earlier chunks are reported first
+        final int remaining = limit - missing.size();
+        final List<List<String>> missingMembers;
+        try {
+            missingMembers = ParallelUtil.map(chunks(new ArrayList<>(set.getClasses()), parallelism), parallelism,
+                    chunk -> {
+                        final List<String> chunkMissing = new ArrayList<>(0);
+                        for (IMappingFile.IClass cls : chunk) {
+                            chunkMissing.addAll(findMissingMembers(cls, superset.getClass(cls.getOriginal())));
+                            if (chunkMissing.size() >= remaining) break;
+                        }
+                        return chunkMissing;
+                    });
+        } catch (IOException e) {
+            // Comparing does not do any I/O, so this can only be an interruption while waiting for the threads
+            throw new UncheckedIOException(e);
+        }
 
-        List<String> superSetClasses = superset.getClasses().stream().map(IMappingFile.INode::getOriginal).collect(Collectors.toList());
-        for (IMappingFile.IClass cls : set.getClasses()) {
-            // Check that class is present in superset
-            if (!superSetClasses.contains(cls.getOriginal())) return false;
-            IMappingFile.IClass superCls = superset.getClass(cls.getOriginal());
+        for (List<String> chunkMissing : missingMembers) {
+            for (String entry : chunkMissing) {
+                if (missing.size() >= limit) return missing;
+                missing.add(entry);
+            }
+        }
+        return missing;
+    }
 
-            List<String> superClsFields = superCls.getFields().stream().map(Object::toString).collect(Collectors.toList());
-            // Check if all fields are present in superclass
-            if (!cls.getFields().stream().map(Object::toString).allMatch(superClsFields::contains)) return false;
+    private static List<String> findMissingMembers(IMappingFile.IClass cls, IMappingFile.@Nullable IClass superCls) {
+        // Check that class is present in superset
+        if (superCls == null) return Collections.singletonList("class " + cls.getOriginal());
 
-            for (IMappingFile.IMethod method : cls.getMethods()) {
-                // Check that method is present in superclass
-                IMappingFile.IMethod superMethod = superCls.getMethod(method.getOriginal(), method.getDescriptor());
-                if (superMethod == null) return false;
+        List<String> missing = new ArrayList<>(0);
+        Set<String> superClsFields = superCls.getFields().stream().map(Object::toString).collect(Collectors.toSet());
+        // Check if all fields are present in superclass
+        for (IMappingFile.IField field : cls.getFields()) {
+            if (!superClsFields.contains(field.toString())) {
+                missing.add("field " + cls.getOriginal() + '.' + field.getOriginal());
             }
         }
 
-        return true;
+        for (IMappingFile.IMethod method : cls.getMethods()) {
+            // Check that method is present in superclass
+            if (superCls.getMethod(method.getOriginal(), method.getDescriptor()) == null) {
+                missing.add("method " + cls.getOriginal() + '.' + method.getOriginal() + method.getDescriptor());
+            }
+        }
+        return missing;
     }
 
     public static MappingDataBuilder createBuilderFrom(IMappingFile mappingFile, boolean reversed) {
         MappingDataBuilder builder = new MappingDataBuilder();
 
         // Copy packages
-        mappingFile.getPackages().forEach(pkg -> builder.createPackage(reversed ? pkg.getMapped() : pkg.getOriginal()));
+        mappingFile.getPackages().forEach(pkg -> builder.createPackage(
+                StringPool.intern(reversed ? pkg.getMapped() : pkg.getOriginal())));
 
         // Copy classes
         mappingFile.getClasses().forEach(cls -> {
-            MutableClassData classBuilder = builder.createClass(reversed ? cls.getMapped() : cls.getOriginal());
+            MutableClassData classBuilder = builder.createClass(
+                    StringPool.intern(reversed ? cls.getMapped() : cls.getOriginal()));
 
             // Copy fields of classes
             cls.getFields().forEach(field ->
-                    classBuilder.createField(reversed ? field.getMapped() : field.getOriginal(),
-                            reversed ? field.getMappedDescriptor() : field.getDescriptor()));
+                    classBuilder.createField(StringPool.intern(reversed ? field.getMapped() : field.getOriginal()),
+                            StringPool.intern(reversed ? field.getMappedDescriptor() : field.getDescriptor())));
 
             // Copy methods of classes
             cls.getMethods().forEach(method -> {
                 MutableMethodData methodBuilder = classBuilder.createMethod(
-                        reversed ? method.getMapped() : method.getOriginal(),
-                        reversed ? method.getMappedDescriptor() : method.getDescriptor());
+                        StringPool.intern(reversed ? method.getMapped() : method.getOriginal()),
+                        StringPool.intern(reversed ? method.getMappedDescriptor() : method.getDescriptor()));
 
                 // Copy parameters of methods
                 method.getParameters().forEach(param ->
                         methodBuilder.createParameter((byte) param.getIndex())
-                                .setName(reversed ? param.getMapped() : param.getOriginal()));
+                                .setName(StringPool.internNullable(reversed ? param.getMapped() : param.getOriginal())));
             });
         });
 
@@ -171,6 +245,10 @@ public class MappingUtil {
 
     // Mapping should be names from data -> target names
     public static MappingDataContainer remapData(MappingDataContainer data, IMappingFile mapping) {
+        return remapData(data, RemapIndex.of(mapping));
+    }
+
+    public static MappingDataContainer remapData(MappingDataContainer data, RemapIndex mapping) {
         MappingDataBuilder builder = new MappingDataBuilder();
 
         data.getPackages().forEach(pkg -> builder.createPackage(mapping.remapPackage(pkg.getName())).addJavadoc(pkg.getJavadoc()));
@@ -188,7 +266,7 @@ public class MappingUtil {
                 String fieldDescriptor = mapping.remapDescriptor(field.getDescriptor());
 
                 if (mappedClass != null) {
-                    IMappingFile.IField mappedField = mappedClass.getField(field.getName());
+                    IMappingFile.IField mappedField = mapping.getField(cls.getName(), field.getName());
                     if (mappedField != null) {
                         fieldName = mappedField.getMapped();
                         if (mappedField.getMappedDescriptor() != null) {
@@ -205,7 +283,7 @@ public class MappingUtil {
                 String methodDescriptor = method.getDescriptor();
 
                 if (mappedClass != null) {
-                    IMappingFile.IMethod mappedMethod = mappedClass.getMethod(method.getName(), method.getDescriptor());
+                    IMappingFile.IMethod mappedMethod = mapping.getMethod(cls.getName(), method.getName(), method.getDescriptor());
                     if (mappedMethod != null) {
                         methodName = mappedMethod.getMapped();
                         methodDescriptor = mappedMethod.getMappedDescriptor();
@@ -253,47 +331,105 @@ public class MappingUtil {
         return constructPackageData(createBuilderFrom(obfToMoj, false));
     }
 
+    /**
+     * Removes all undocumented data from the builder, in a single bottom-up pass over its classes.
+     *
+     * <p>Packages and fields without javadocs are removed, as are parameters without a name or javadoc. Methods
+     * without javadocs are removed if none of their parameters remain, and classes without javadocs are removed if none
+     * of their fields and methods remain.</p>
+     *
+     * @param builder the mapping data builder
+     */
     public static void removeUndocumented(MappingDataBuilder builder) {
-        builder.getPackages().stream()
-                .filter(s -> s.getJavadoc().isEmpty())
-                .map(MutablePackageData::getName)
-                .collect(Collectors.toSet())
-                .forEach(builder::removePackage);
-
-        //noinspection Convert2MethodRef damn you javac
-        builder.getClasses().stream()
-                .peek(cls -> cls.getFields().stream()
-                        .filter(field -> field.getJavadoc().isEmpty())
-                        .map(MutableFieldData::getName)
-                        .collect(Collectors.toSet())
-                        .forEach(field -> cls.removeField(field)))
-                .peek(cls -> cls.getMethods().stream()
-                        .peek(method -> method.getParameters().stream()
-                                .filter(param -> param.getName() == null && param.getJavadoc() == null)
-                                .map(MutableParameterData::getIndex)
-                                .collect(Collectors.toSet())
-                                .forEach(method::removeParameter))
-                        .filter(method -> method.getJavadoc().isEmpty() && method.getParameters().isEmpty())
-                        .collect(Collectors.toSet())
-                        .forEach(method -> cls.removeMethod(method.getName(), method.getDescriptor())))
-                .filter(cls -> cls.getJavadoc().isEmpty() && cls.getFields().isEmpty() && cls.getMethods().isEmpty())
-                .map(MutableClassData::getName)
-                .collect(Collectors.toSet())
-                .forEach(builder::removeClass);
+        removeUndocumentedPackages(builder);
+
+        final List<String> emptyClasses = new ArrayList<>();
+        for (MutableClassData cls : builder.getClasses()) {
+            if (removeUndocumented(cls)) emptyClasses.add(cls.getName());
+        }
+        emptyClasses.forEach(builder::removeClass);
     }
 
-    public static Map<String, ClassMetadata> buildClassMetadataMap(@Nullable SourceMetadata metadata) {
-        if (metadata == null) return Collections.emptyMap();
+    /**
+     * Removes all undocumented data from the builder, pruning the classes using up to the given amount of threads.
+     * Each class is only ever pruned by a single thread, and the builder itself is only modified on the calling thread.
+     *
+     * @param builder     the mapping data builder
+     * @param parallelism the maximum amount of threads to use
+     * @see #removeUndocumented(MappingDataBuilder)
+     */
+    public static void removeUndocumented(MappingDataBuilder builder, int parallelism) {
+        if (parallelism <= 1) {
+            removeUndocumented(builder);
+            return;
+        }
+
+        removeUndocumentedPackages(builder);
 
-        final HashMap<String, ClassMetadata> classMetadataMap = new HashMap<>();
-        final ArrayDeque<ClassMetadata> toTraverse = new ArrayDeque<>(metadata.getClasses());
+        // Prune the classes in contiguous chunks rather than one task per class, as most classes are pruned quickly
+        final List<List<MutableClassData>> chunks = chunks(new ArrayList<>(builder.getClasses()), parallelism);
+
+        final List<List<String>> emptyClasses;
+        try {
+            emptyClasses = ParallelUtil.map(chunks, parallelism, chunk -> {
+                final List<String> empty = new ArrayList<>();
+                for (MutableClassData cls : chunk) {
+                    if (removeUndocumented(cls)) empty.add(cls.getName());
+                }
+                return empty;
+            });
+        } catch (IOException e) {
+            // Pruning does not do any I/O, so this can only be an interruption while waiting for the threads
+            throw new UncheckedIOException(e);
+        }
+        emptyClasses.forEach(names -> names.forEach(builder::removeClass));
+    }
+
+    // Splits the list into one contiguous chunk per thread
+    private static <T> List<List<T>> chunks(List<T> list, int parallelism) {
+        final int chunkSize = Math.max(1, (list.size() + parallelism - 1) / Math.max(1, parallelism));
+        final List<List<T>> chunks = new ArrayList<>();
+        for (int start = 0; start < list.size(); start += chunkSize) {
+            chunks.add(list.subList(start, Math.min(start + chunkSize, list.size())));
+        }
+        return chunks;
+    }
+
+    private static void removeUndocumentedPackages(MappingDataBuilder builder) {
+        final List<String> toRemove = new ArrayList<>();
+        for (MutablePackageData pkg : builder.getPackages()) {
+            if (pkg.getJavadoc().isEmpty()) toRemove.add(pkg.getName());
+        }
+        toRemove.forEach(builder::removePackage);
+    }
+
+    /**
+     * Prunes the undocumented fields, methods, and parameters of the class, and returns whether the class itself is
+     * undocumented and empty afterwards.
+     *
+     * <p>The views returned by the builder are unmodifiable and backed by the live data, so the removals of each level
+     * are batched and applied once its iteration is done.</p>
+     */
+    private static boolean removeUndocumented(MutableClassData cls) {
+        final List<String> fields = new ArrayList<>();
+        for (MutableFieldData field : cls.getFields()) {
+            if (field.getJavadoc().isEmpty()) fields.add(field.getName());
+        }
+        fields.forEach(cls::removeField);
+
+        final List<MutableMethodData> methods = new ArrayList<>();
+        final List<Byte> params = new ArrayList<>();
+        for (MutableMethodData method : cls.getMethods()) {
+            params.clear();
+            for (MutableParameterData param : method.getParameters()) {
+                if (param.getName() == null && param.getJavadoc() == null) params.add(param.getIndex());
+            }
+            params.forEach(method::removeParameter);
 
-        ClassMetadata current;
-        while ((current = toTraverse.poll()) != null) {
-            classMetadataMap.put(current.getName().getMojangName().orElse(""), current);
-            toTraverse.addAll(current.getInnerClasses());
+            if (method.getJavadoc().isEmpty() && method.getParameters().isEmpty()) methods.add(method);
         }
+        methods.forEach(method -> cls.removeMethod(method.getName(), method.getDescriptor()));
 
-        return classMetadataMap;
+        return cls.getJavadoc().isEmpty() && cls.getFields().isEmpty() && cls.getMethods().isEmpty();
     }
 }
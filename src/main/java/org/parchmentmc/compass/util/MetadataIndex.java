@@ -0,0 +1,173 @@
+package org.parchmentmc.compass.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.parchmentmc.feather.metadata.ClassMetadata;
+import org.parchmentmc.feather.metadata.FieldMetadata;
+import org.parchmentmc.feather.metadata.MethodMetadata;
+import org.parchmentmc.feather.metadata.SourceMetadata;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * An index over source metadata for looking up the metadata of classes, fields, and methods by their Mojang names,
+ * built once and shared by every lookup.
+ *
+ * <p>Classes, including inner classes, are keyed by their names. Fields are keyed by their owner class and name, and
+ * methods by their owner class, name, and descriptor. Members without a Mojang name or descriptor are not indexed. If
+ * there are multiple members with the same key, the first one in the metadata is kept.</p>
+ *
+ * <p>A {@linkplain #lazy(ClassSource) lazy index} only loads the metadata of a class when it is first looked up, so
+ * the cost of the index follows the classes which are actually used. A lazy index is not safe for use from multiple
+ * threads.</p>
+ */
+public final class MetadataIndex {
+    private static final MetadataIndex EMPTY = new MetadataIndex(null);
+
+    @Nullable
+    private final ClassSource source;
+    private final Map<String, ClassMetadata> classes = new HashMap<>();
+    // Keyed by the owner class, a space, and the field name
+    private final Map<String, FieldMetadata> fields = new HashMap<>();
+    // Keyed by the owner class, a space, the method name, and the method descriptor
+    private final Map<String, MethodMetadata> methods = new HashMap<>();
+    // Names of the classes which were requested from the source, whether or not they were found
+    private final Set<String> requested = new HashSet<>();
+
+    private MetadataIndex(@Nullable ClassSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Builds the index over the given source metadata, or returns an empty index if the metadata is {@code null}.
+     *
+     * @param metadata the source metadata, may be {@code null}
+     * @return the index
+     */
+    public static MetadataIndex of(@Nullable SourceMetadata metadata) {
+        if (metadata == null) return EMPTY;
+
+        final MetadataIndex index = new MetadataIndex(null);
+        for (ClassMetadata cls : metadata.getClasses()) {
+            index.add(cls);
+        }
+        return index;
+    }
+
+    /**
+     * Creates an index which loads the metadata of classes from the given source when they are first looked up.
+     *
+     * @param source the source of the class metadata
+     * @return the lazy index
+     */
+    public static MetadataIndex lazy(ClassSource source) {
+        return new MetadataIndex(source);
+    }
+
+    /**
+     * Loads the metadata of the given classes, if this is a lazy index and they are not loaded yet.
+     *
+     * @param classNames the names of the classes
+     * @throws UncheckedIOException if an I/O error occurs while loading the metadata
+     */
+    public void preload(Collection<String> classNames) {
+        for (String className : classNames) {
+            load(className);
+        }
+    }
+
+    /**
+     * Returns the amount of classes in the index, including inner classes. For a lazy index, this is the amount of
+     * classes loaded so far.
+     *
+     * @return the amount of indexed classes
+     */
+    public int getClassCount() {
+        return classes.size();
+    }
+
+    /**
+     * Returns the metadata of the class with the given name.
+     *
+     * @param className the name of the class
+     * @return the class metadata, or {@code null} if there is none
+     * @throws UncheckedIOException if an I/O error occurs while lazily loading the metadata
+     */
+    @Nullable
+    public ClassMetadata getClass(String className) {
+        load(className);
+        return classes.get(className);
+    }
+
+    @Nullable
+    public FieldMetadata getField(String className, String fieldName) {
+        load(className);
+        return fields.get(fieldKey(className, fieldName));
+    }
+
+    @Nullable
+    public MethodMetadata getMethod(String className, String methodName, String descriptor) {
+        load(className);
+        return methods.get(methodKey(className, methodName, descriptor));
+    }
+
+    private void load(String className) {
+        if (source == null || classes.containsKey(className) || !requested.add(className)) return;
+
+        final ClassMetadata cls;
+        try {
+            cls = source.load(className);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load metadata for class " + className, e);
+        }
+        if (cls != null) add(cls);
+    }
+
+    // Adds the class and all of the inner classes nested within it, each under its own name
+    private void add(ClassMetadata topLevel) {
+        final ArrayDeque<ClassMetadata> toTraverse = new ArrayDeque<>();
+        toTraverse.add(topLevel);
+
+        ClassMetadata cls;
+        while ((cls = toTraverse.poll()) != null) {
+            final String className = cls.getName().getMojangName().orElse("");
+            classes.put(className, cls);
+            for (FieldMetadata field : cls.getFields()) {
+                final String name = field.getName().getMojangName().orElse(null);
+                if (name != null) fields.putIfAbsent(fieldKey(className, name), field);
+            }
+            for (MethodMetadata method : cls.getMethods()) {
+                final String name = method.getName().getMojangName().orElse(null);
+                final String descriptor = method.getDescriptor().getMojangName().orElse(null);
+                if (name != null && descriptor != null)
+                    methods.putIfAbsent(methodKey(className, name, descriptor), method);
+            }
+            toTraverse.addAll(cls.getInnerClasses());
+        }
+    }
+
+    private static String fieldKey(String className, String fieldName) {
+        return className + ' ' + fieldName;
+    }
+
+    private static String methodKey(String className, String methodName, String descriptor) {
+        return className + ' ' + methodName + descriptor;
+    }
+
+    /**
+     * A source of class metadata for a {@linkplain #lazy(ClassSource) lazy index}.
+     */
+    @FunctionalInterface
+    public interface ClassSource {
+        /**
+         * Loads the metadata of the top-level class which is, or contains, the class with the given name.
+         *
+         * @param className the name of the class
+         * @return the top-level class metadata including its inner classes, or {@code null} if there is none
+         * @throws IOException if an I/O error occurs while loading the metadata
+         */
+        @Nullable
+        ClassMetadata load(String className) throws IOException;
+    }
+}
@@ -0,0 +1,111 @@
+package org.parchmentmc.compass.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ParallelUtil {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ThreadFactory THREAD_FACTORY = runnable -> {
+        Thread thread = new Thread(runnable, "compass-io-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    private ParallelUtil() {
+    } // Prevent instantiation
+
+    /**
+     * Applies the given function to each of the inputs, using up to the given amount of threads. The results are
+     * returned in the same order as their inputs, regardless of the order in which they were computed.
+     *
+     * <p>If the parallelism is {@code 1} or less, the function is applied sequentially on the calling thread.</p>
+     *
+     * @param inputs      the inputs
+     * @param parallelism the maximum amount of threads to use
+     * @param function    the function to apply to each input
+     * @param <T>         the type of the inputs
+     * @param <R>         the type of the results
+     * @return the list of results, in the order of the inputs
+     * @throws IOException if the function throws an exception for any of the inputs
+     */
+    public static <T, R> List<R> map(List<? extends T> inputs, int parallelism, IOFunction<? super T, ? extends R> function)
+            throws IOException {
+        final List<R> results = new ArrayList<>(inputs.size());
+
+        if (parallelism <= 1 || inputs.size() <= 1) {
+            for (T input : inputs) {
+                results.add(function.apply(input));
+            }
+            return results;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, inputs.size()), THREAD_FACTORY);
+        try {
+            final List<Future<R>> futures = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                final Callable<R> task = () -> function.apply(input);
+                futures.add(executor.submit(task));
+            }
+
+            for (Future<R> future : futures) {
+                results.add(await(future));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    /**
+     * Runs the given action for each of the inputs, using up to the given amount of threads.
+     *
+     * @param inputs      the inputs
+     * @param parallelism the maximum amount of threads to use
+     * @param action      the action to run for each input
+     * @param <T>         the type of the inputs
+     * @throws IOException if the action throws an exception for any of the inputs
+     * @see #map(List, int, IOFunction)
+     */
+    public static <T> void forEach(List<? extends T> inputs, int parallelism, IOConsumer<? super T> action)
+            throws IOException {
+        map(inputs, parallelism, input -> {
+            action.accept(input);
+            return null;
+        });
+    }
+
+    private static <R> R await(Future<R> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for parallel task");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException("Exception while running parallel task", cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface IOFunction<T, R> {
+        R apply(T input) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface IOConsumer<T> {
+        void accept(T input) throws IOException;
+    }
+}
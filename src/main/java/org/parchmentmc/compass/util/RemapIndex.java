@@ -0,0 +1,107 @@
+package org.parchmentmc.compass.util;
+
+import net.minecraftforge.srgutils.IMappingFile;
+import net.minecraftforge.srgutils.IMappingFile.IClass;
+import net.minecraftforge.srgutils.IMappingFile.IField;
+import net.minecraftforge.srgutils.IMappingFile.IMethod;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index over a mapping file for remapping mapping data, built once and shared by every lookup.
+ *
+ * <p>Classes, fields, and methods are looked up through flat hash maps keyed by their original names. Package names
+ * and descriptors are remapped on first use and memoized, as the same descriptors recur across many members.</p>
+ *
+ * <p>The index is safe for use from multiple threads, as long as the underlying mapping file is not modified.</p>
+ */
+public final class RemapIndex {
+    private final IMappingFile mapping;
+    private final Map<String, IClass> classes;
+    // Keyed by the owner class, a space, and the field name
+    private final Map<String, IField> fields;
+    // Keyed by the owner class, a space, the method name, and the method descriptor
+    private final Map<String, IMethod> methods;
+    private final Map<String, String> packages = new ConcurrentHashMap<>();
+    private final Map<String, String> descriptors = new ConcurrentHashMap<>();
+
+    private RemapIndex(IMappingFile mapping) {
+        this.mapping = mapping;
+
+        final Map<String, IClass> classes = new HashMap<>();
+        final Map<String, IField> fields = new HashMap<>();
+        final Map<String, IMethod> methods = new HashMap<>();
+        for (IClass cls : mapping.getClasses()) {
+            classes.put(cls.getOriginal(), cls);
+            for (IField field : cls.getFields()) {
+                fields.put(fieldKey(cls.getOriginal(), field.getOriginal()), field);
+            }
+            for (IMethod method : cls.getMethods()) {
+                methods.put(methodKey(cls.getOriginal(), method.getOriginal(), method.getDescriptor()), method);
+            }
+        }
+        this.classes = classes;
+        this.fields = fields;
+        this.methods = methods;
+    }
+
+    /**
+     * Builds the index over the given mapping file.
+     *
+     * @param mapping the mapping file
+     * @return the index
+     */
+    public static RemapIndex of(IMappingFile mapping) {
+        return new RemapIndex(mapping);
+    }
+
+    public IMappingFile getMapping() {
+        return mapping;
+    }
+
+    @Nullable
+    public IClass getClass(String className) {
+        return classes.get(className);
+    }
+
+    @Nullable
+    public IField getField(String className, String fieldName) {
+        return fields.get(fieldKey(className, fieldName));
+    }
+
+    @Nullable
+    public IMethod getMethod(String className, String methodName, String descriptor) {
+        return methods.get(methodKey(className, methodName, descriptor));
+    }
+
+    /**
+     * Remaps the package name, the same as {@link IMappingFile#remapPackage(String)}.
+     *
+     * @param packageName the original package name
+     * @return the remapped package name
+     */
+    public String remapPackage(String packageName) {
+        return packages.computeIfAbsent(packageName, mapping::remapPackage);
+    }
+
+    /**
+     * Remaps the class names in the descriptor, the same as {@link IMappingFile#remapDescriptor(String)}.
+     *
+     * @param descriptor the original descriptor
+     * @return the remapped descriptor
+     */
+    public String remapDescriptor(String descriptor) {
+        return descriptors.computeIfAbsent(descriptor, d -> StringPool.intern(mapping.remapDescriptor(d)));
+    }
+
+    private static String fieldKey(String className, String fieldName) {
+        return className + ' ' + fieldName;
+    }
+
+    private static String methodKey(String className, String methodName, String descriptor) {
+        return className + ' ' + methodName + descriptor;
+    }
+}
@@ -0,0 +1,127 @@
+package org.parchmentmc.compass.util;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A shared pool of strings for the names, descriptors, and javadoc lines read by the mapping data readers, so that
+ * identical strings across the read data share one instance.
+ *
+ * <p>The pool only holds weak references to its strings, so strings which are no longer used elsewhere may be garbage
+ * collected. The pool is safe for use from multiple threads.</p>
+ */
+public final class StringPool {
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder REUSED = new LongAdder();
+    private static final LongAdder SAVED_BYTES = new LongAdder();
+
+    private StringPool() {
+    } // Prevent instantiation
+
+    /**
+     * Returns the pooled instance of the given string, adding it to the pool if it is not yet present.
+     *
+     * @param string the string
+     * @return the pooled instance which is equal to the given string
+     */
+    public static String intern(String string) {
+        final String pooled = INTERNER.intern(string);
+        LOOKUPS.increment();
+        if (pooled != string) {
+            REUSED.increment();
+            SAVED_BYTES.add(estimateSize(string));
+        }
+        return pooled;
+    }
+
+    /**
+     * Returns the pooled instance of the given string, or {@code null} if the string is {@code null}.
+     *
+     * @param string the string, may be {@code null}
+     * @return the pooled instance which is equal to the given string, or {@code null}
+     * @see #intern(String)
+     */
+    @Nullable
+    public static String internNullable(@Nullable String string) {
+        return string != null ? intern(string) : null;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the pool, counting every lookup since the pool was created. As the pool
+     * lives as long as the build process, use {@link Statistics#since(Statistics)} to count the lookups of one read.
+     *
+     * @return the statistics of the pool
+     */
+    public static Statistics getStatistics() {
+        return new Statistics(LOOKUPS.sum(), REUSED.sum(), SAVED_BYTES.sum());
+    }
+
+    // Estimated retained size of a string on a 64-bit JVM with compressed oops: the string object and its char array
+    private static long estimateSize(String string) {
+        return 24 + align(16 + 2L * string.length());
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    public static final class Statistics {
+        private final long lookups;
+        private final long reused;
+        private final long savedBytes;
+
+        Statistics(long lookups, long reused, long savedBytes) {
+            this.lookups = lookups;
+            this.reused = reused;
+            this.savedBytes = savedBytes;
+        }
+
+        /**
+         * Returns the amount of strings which were looked up in the pool.
+         *
+         * @return the amount of lookups
+         */
+        public long getLookups() {
+            return lookups;
+        }
+
+        /**
+         * Returns the amount of looked up strings which were replaced by an already pooled instance.
+         *
+         * @return the amount of reused strings
+         */
+        public long getReused() {
+            return reused;
+        }
+
+        /**
+         * Returns the estimated amount of heap bytes saved by replacing strings with their pooled instances.
+         *
+         * @return the estimated saved bytes
+         */
+        public long getSavedBytes() {
+            return savedBytes;
+        }
+
+        /**
+         * Returns the statistics of the lookups made after the given earlier snapshot.
+         *
+         * @param earlier the earlier snapshot
+         * @return the difference between this snapshot and the earlier snapshot
+         */
+        public Statistics since(Statistics earlier) {
+            return new Statistics(lookups - earlier.lookups, reused - earlier.reused,
+                    savedBytes - earlier.savedBytes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d of %d strings reused from the string pool, saving an estimated %.1f MiB",
+                    reused, lookups, savedBytes / (1024.0 * 1024.0));
+        }
+    }
+}
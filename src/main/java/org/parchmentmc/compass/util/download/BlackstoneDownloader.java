@@ -1,5 +1,6 @@
 package org.parchmentmc.compass.util.download;
 
+import com.squareup.moshi.JsonReader;
 import com.squareup.moshi.Moshi;
 import okio.BufferedSource;
 import okio.Okio;
@@ -8,13 +9,24 @@ import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.logging.Logger;
+import org.gradle.internal.hash.HashUtil;
 import org.parchmentmc.compass.CompassExtension;
+import org.parchmentmc.compass.util.BinaryJson;
 import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.compass.util.MetadataIndex;
+import org.parchmentmc.feather.metadata.ClassMetadata;
 import org.parchmentmc.feather.metadata.SourceMetadata;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -23,6 +35,12 @@ public class BlackstoneDownloader {
     public static final String BLACKSTONE_CONFIGURATION_NAME = "blackstone";
     public static final String DEFAULT_BLACKSTONE_ARTIFACT_DEPENDENCY = "org.parchmentmc.data:blackstone:%s@zip";
     private static final String JSON_DATA_FILE_NAME = "merged.json";
+    private static final String CACHE_EXTENSION = ".bin";
+    private static final String INDEX_EXTENSION = ".index.bin";
+    // Member of the root metadata object which holds the classes
+    private static final String CLASSES_KEY = "classes";
+    private static final String INDEX_HEADER = "header";
+    private static final String INDEX_CLASSES = "classes";
 
     private final Project project;
 
@@ -73,6 +91,10 @@ public class BlackstoneDownloader {
     private boolean cached = false;
     private SourceMetadata cachedData = null;
 
+    private boolean opened = false;
+    @Nullable
+    private CachedMetadata openedMetadata = null;
+
     @Nullable
     public SourceMetadata retrieveMetadata() throws IOException {
         if (cached) {
@@ -80,11 +102,85 @@ public class BlackstoneDownloader {
         }
         cached = true;
 
+        final CachedMetadata metadata = openMetadata();
+        if (metadata != null) {
+            cachedData = MOSHI.adapter(SourceMetadata.class).fromJsonValue(
+                    metadata.document.read(metadata.document.getRootPosition()));
+        }
+
+        return cachedData;
+    }
+
+    /**
+     * Returns an index over the metadata which loads the metadata of classes as they are looked up, starting with the
+     * given classes. Only the looked up classes are decoded from the cache, so the cost follows the working set rather
+     * than the size of the metadata.
+     *
+     * @param classNames the names of the classes to load up front, such as the classes of the processed data
+     * @return the metadata index, or {@code null} if there is no metadata
+     * @throws IOException if an I/O error occurs while reading the metadata
+     */
+    @Nullable
+    public MetadataIndex retrieveMetadataIndex(Collection<String> classNames) throws IOException {
+        if (cached) { // The whole metadata is already loaded
+            return cachedData != null ? MetadataIndex.of(cachedData) : null;
+        }
+
+        final CachedMetadata metadata = openMetadata();
+        if (metadata == null) {
+            return null;
+        }
+        if (metadata.classPositions == null) { // Unknown layout, so the classes cannot be found in the cache
+            return MetadataIndex.of(retrieveMetadata());
+        }
+
+        final MetadataIndex index = MetadataIndex.lazy(metadata::loadClass);
+        index.preload(classNames);
+        project.getLogger().info("Loaded Blackstone metadata for {} of {} requested classes", index.getClassCount(),
+                classNames.size());
+        return index;
+    }
+
+    @Nullable
+    private CachedMetadata openMetadata() throws IOException {
+        if (opened) {
+            return openedMetadata;
+        }
+        opened = true;
+
         final File artifact = downloadArtifact();
         if (artifact == null) {
             return null;
         }
 
+        openedMetadata = openCache(artifact);
+        return openedMetadata;
+    }
+
+    /**
+     * Opens the binary cache of the metadata JSON in the artifact, creating it if the artifact was not read before. The
+     * cache is keyed by the SHA-1 hash of the artifact, so a changed artifact is read again.
+     */
+    @Nullable
+    private CachedMetadata openCache(File artifact) throws IOException {
+        final Logger logger = project.getLogger();
+        final CompassExtension extension = project.getExtensions().getByType(CompassExtension.class);
+        final Path cacheDir = extension.getMetadataCache().get().getAsFile().toPath();
+        final String key = HashUtil.sha1(artifact).asZeroPaddedHexString(40);
+        final Path cacheFile = cacheDir.resolve(key + CACHE_EXTENSION);
+        final Path indexFile = cacheDir.resolve(key + INDEX_EXTENSION);
+
+        if (Files.isRegularFile(cacheFile) && Files.isRegularFile(indexFile)) {
+            try {
+                final CachedMetadata metadata = readCache(cacheFile, indexFile);
+                logger.debug("Opened cached Blackstone metadata from {}", cacheFile);
+                return metadata;
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Unable to read cached Blackstone metadata from {}, reading the artifact", cacheFile, e);
+            }
+        }
+
+        final Object json;
         try (ZipFile zip = new ZipFile(artifact)) {
             ZipEntry entry = zip.getEntry(JSON_DATA_FILE_NAME);
             if (entry == null && zip.size() == 1) { // If there's only one entry, then that's our json
@@ -95,10 +191,146 @@ public class BlackstoneDownloader {
             }
 
             try (BufferedSource source = Okio.buffer(Okio.source(zip.getInputStream(entry)))) {
-                cachedData = MOSHI.adapter(SourceMetadata.class).fromJson(source);
+                json = JsonReader.of(source).readJsonValue();
             }
         }
 
-        return cachedData;
+        writeCache(json, cacheDir, cacheFile, indexFile);
+        logger.debug("Cached Blackstone metadata to {}", cacheFile);
+
+        return readCache(cacheFile, indexFile);
+    }
+
+    private static CachedMetadata readCache(Path cacheFile, Path indexFile) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        final BinaryJson.Document document = BinaryJson.open(buffer);
+
+        final Object index = BinaryJson.read(ByteBuffer.wrap(Files.readAllBytes(indexFile)));
+        if (!(index instanceof Map)) throw new IOException("Malformed Blackstone metadata cache index " + indexFile);
+        final Object header = ((Map<?, ?>) index).get(INDEX_HEADER);
+        final Object classes = ((Map<?, ?>) index).get(INDEX_CLASSES);
+
+        Map<String, Integer> classPositions = null;
+        if (header instanceof Map && classes instanceof Map) {
+            classPositions = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) classes).entrySet()) {
+                classPositions.put((String) entry.getKey(), ((Number) entry.getValue()).intValue());
+            }
+        }
+
+        return new CachedMetadata(document, copyMembers(header), classPositions);
+    }
+
+    /*
+     * Writes the JSON value in binary form, along with an index of the position of each top-level class in the binary
+     * form by the names of the class and its inner classes. The index also holds the other members of the root object,
+     * which are needed to read a single class. Each file is written to a temporary file first, so an interrupted write
+     * never leaves a partial cache.
+     */
+    private static void writeCache(@Nullable Object json, Path cacheDir, Path cacheFile, Path indexFile)
+            throws IOException {
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        BinaryJson.write(json, encoded);
+        final byte[] bytes = encoded.toByteArray();
+
+        final Map<String, Object> index = new LinkedHashMap<>();
+        final BinaryJson.Document document = BinaryJson.open(ByteBuffer.wrap(bytes));
+        final int classesPosition = document.findMember(document.getRootPosition(), CLASSES_KEY);
+        final int[] classPositions = classesPosition != -1 ? document.findElements(classesPosition) : null;
+        final Map<String, Object> header = copyMembers(json);
+        if (classPositions != null && header != null) {
+            final List<?> classValues = (List<?>) header.put(CLASSES_KEY, null); // Keeps the position of the member
+
+            // The names are read from the JSON values, as binding each class through the adapter is far slower
+            final Map<String, Object> positions = new HashMap<>();
+            for (int i = 0; i < classPositions.length; i++) {
+                final ArrayDeque<Map<?, ?>> toTraverse = new ArrayDeque<>();
+                addObject(toTraverse, classValues.get(i));
+                Map<?, ?> current;
+                while ((current = toTraverse.poll()) != null) {
+                    final Object name = current.get("name");
+                    final Object mojangName = name instanceof Map ? ((Map<?, ?>) name).get("mojangName") : null;
+                    positions.putIfAbsent(mojangName instanceof String ? (String) mojangName : "",
+                            (double) classPositions[i]);
+
+                    final Object innerClasses = current.get("innerClasses");
+                    if (innerClasses instanceof List) {
+                        for (Object innerClass : (List<?>) innerClasses) {
+                            addObject(toTraverse, innerClass);
+                        }
+                    }
+                }
+            }
+
+            index.put(INDEX_HEADER, header);
+            index.put(INDEX_CLASSES, positions);
+        }
+
+        final ByteArrayOutputStream encodedIndex = new ByteArrayOutputStream();
+        BinaryJson.write(index, encodedIndex);
+
+        Files.createDirectories(cacheDir);
+        writeAtomically(cacheDir, cacheFile, bytes);
+        writeAtomically(cacheDir, indexFile, encodedIndex.toByteArray());
+    }
+
+    private static void writeAtomically(Path dir, Path file, byte[] bytes) throws IOException {
+        final Path temp = Files.createTempFile(dir, "metadata", ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void addObject(Collection<Map<?, ?>> objects, @Nullable Object value) {
+        if (value instanceof Map) objects.add((Map<?, ?>) value);
+    }
+
+    // Copies the members of a JSON object, or returns null if the value is not an object
+    @Nullable
+    private static Map<String, Object> copyMembers(@Nullable Object value) {
+        if (!(value instanceof Map)) return null;
+        final Map<String, Object> members = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            members.put((String) entry.getKey(), entry.getValue());
+        }
+        return members;
+    }
+
+    // Binds a single class through the source metadata adapter, as the root object with only that class
+    @Nullable
+    private static ClassMetadata bindClass(Map<String, Object> header, @Nullable Object classValue) throws IOException {
+        final Map<String, Object> root = new LinkedHashMap<>(header);
+        root.put(CLASSES_KEY, Collections.singletonList(classValue));
+        final SourceMetadata metadata = MOSHI.adapter(SourceMetadata.class).fromJsonValue(root);
+        return metadata != null && !metadata.getClasses().isEmpty() ? metadata.getClasses().get(0) : null;
+    }
+
+    private static final class CachedMetadata {
+        final BinaryJson.Document document;
+        @Nullable
+        final Map<String, Object> header;
+        // Position of the top-level class by the names of the class and its inner classes, if the layout is known
+        @Nullable
+        final Map<String, Integer> classPositions;
+
+        CachedMetadata(BinaryJson.Document document, @Nullable Map<String, Object> header,
+                       @Nullable Map<String, Integer> classPositions) {
+            this.document = document;
+            this.header = header;
+            this.classPositions = classPositions;
+        }
+
+        @Nullable
+        ClassMetadata loadClass(String className) throws IOException {
+            final Integer position = classPositions != null ? classPositions.get(className) : null;
+            if (position == null || header == null) return null;
+            return bindClass(header, document.read(position));
+        }
     }
 }
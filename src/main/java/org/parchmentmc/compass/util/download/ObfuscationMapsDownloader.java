@@ -9,6 +9,7 @@ import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.parchmentmc.compass.CompassExtension;
 import org.parchmentmc.compass.util.MappingUtil;
 import org.parchmentmc.feather.manifests.VersionManifest;
 
@@ -26,6 +27,7 @@ public class ObfuscationMapsDownloader {
     private final Provider<VersionManifest.DownloadInfo> clientDownload;
     private final Provider<VersionManifest.DownloadInfo> serverDownload;
     private final Provider<IMappingFile> obfuscationMapProvider;
+    private final Provider<String> obfuscationMapHash;
 
     public ObfuscationMapsDownloader(Project project) {
         this.project = project;
@@ -59,6 +61,7 @@ public class ObfuscationMapsDownloader {
         });
 
         obfuscationMapProvider = project.provider(this::downloadObfuscationMap);
+        obfuscationMapHash = clientDownload.zip(serverDownload, (client, server) -> client.getSHA1() + '+' + server.getSHA1());
     }
 
     public Project getProject() {
@@ -112,7 +115,8 @@ public class ObfuscationMapsDownloader {
             downloadFile(serverInfo, serverMappings, "server obfuscation map for " + version);
         }
 
-        obfuscationMap = MappingUtil.loadAndEnsureSuperset(clientMappings.toPath(), serverMappings.toPath());
+        final int ioThreads = project.getExtensions().getByType(CompassExtension.class).getIOThreads().get();
+        obfuscationMap = MappingUtil.loadAndEnsureSuperset(clientMappings.toPath(), serverMappings.toPath(), ioThreads);
         obfuscationMap = MappingUtil.constructPackageData(obfuscationMap);
 
         return obfuscationMap;
@@ -121,4 +125,14 @@ public class ObfuscationMapsDownloader {
     public Provider<IMappingFile> getObfuscationMap() {
         return obfuscationMapProvider;
     }
+
+    /**
+     * Returns a provider for a hash of the client and server obfuscation maps, taken from the checksums in the version
+     * manifest, which does not require downloading the obfuscation maps.
+     *
+     * @return a provider for the hash of the obfuscation maps
+     */
+    public Provider<String> getObfuscationMapHash() {
+        return obfuscationMapHash;
+    }
 }
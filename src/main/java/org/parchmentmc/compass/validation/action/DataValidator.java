@@ -2,7 +2,7 @@ package org.parchmentmc.compass.validation.action;
 
 import com.google.common.collect.ImmutableList;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.parchmentmc.compass.util.MappingUtil;
+import org.parchmentmc.compass.util.MetadataIndex;
 import org.parchmentmc.compass.util.ResultContainer;
 import org.parchmentmc.compass.validation.ValidationIssue;
 import org.parchmentmc.compass.validation.Validator;
@@ -33,6 +33,10 @@ public class DataValidator {
     }
 
     public ResultContainer<List<? extends ValidationIssue>> validate(MappingDataContainer data, @Nullable SourceMetadata metadata) {
+        return validate(data, MetadataIndex.of(metadata));
+    }
+
+    public ResultContainer<List<? extends ValidationIssue>> validate(MappingDataContainer data, MetadataIndex metadataIndex) {
         ResultContainer<List<? extends ValidationIssue>> results = new ResultContainer<>();
 
         // reusable lists
@@ -55,11 +59,9 @@ public class DataValidator {
             }
         }
 
-        final Map<String, ClassMetadata> classMetadataMap = MappingUtil.buildClassMetadataMap(metadata);
-
         // Classes
         for (MappingDataContainer.ClassData clsData : data.getClasses()) {
-            ClassMetadata clsMeta = classMetadataMap.get(clsData.getName());
+            ClassMetadata clsMeta = metadataIndex.getClass(clsData.getName());
 
             classIssues.clear();
             for (Validator validator : validators) {
@@ -70,9 +72,7 @@ public class DataValidator {
 
             // Fields
             for (MappingDataContainer.FieldData fieldData : clsData.getFields()) {
-                FieldMetadata fieldMeta = clsMeta != null ? clsMeta.getFields().stream()
-                        .filter(s -> s.getName().getMojangName().orElse("").contentEquals(fieldData.getName()))
-                        .findFirst().orElse(null) : null;
+                FieldMetadata fieldMeta = metadataIndex.getField(clsData.getName(), fieldData.getName());
 
                 fieldIssues.clear();
                 for (Validator validator : validators) {
@@ -87,10 +87,8 @@ public class DataValidator {
 
             // Methods
             for (MappingDataContainer.MethodData methodData : clsData.getMethods()) {
-                MethodMetadata methodMeta = clsMeta != null ? clsMeta.getMethods().stream()
-                        .filter(s -> s.getName().getMojangName().orElse("").contentEquals(methodData.getName())
-                                && s.getDescriptor().getMojangName().orElse("").contentEquals(methodData.getDescriptor()))
-                        .findFirst().orElse(null) : null;
+                MethodMetadata methodMeta = metadataIndex.getMethod(clsData.getName(), methodData.getName(),
+                        methodData.getDescriptor());
 
                 methodIssues.clear();
                 for (Validator validator : validators) {
@@ -0,0 +1,59 @@
+package org.parchmentmc.compass.storage;
+
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OverlayMappingDataBuilderTest {
+    private static MappingDataBuilder createBase() {
+        final MappingDataBuilder base = new MappingDataBuilder();
+        base.createClass("com/example/A")
+                .addJavadoc("Class A")
+                .createMethod("run", "(I)V")
+                .createParameter((byte) 1).setName("count");
+        base.createClass("com/example/B")
+                .createField("value", "J");
+        base.createClass("com/example/C");
+        return base;
+    }
+
+    @Test
+    public void untouched_classes_are_read_from_base() {
+        final MappingDataBuilder base = createBase();
+        final OverlayMappingDataBuilder overlay = new OverlayMappingDataBuilder(base);
+
+        assertSame(base.getClass("com/example/A"), overlay.getClass("com/example/A"));
+        assertEquals(0, overlay.getModifiedClassCount());
+        assertEquals(base, MappingDataBuilder.copyOf(overlay));
+    }
+
+    @Test
+    public void modifications_do_not_change_base() {
+        final MappingDataBuilder base = createBase();
+        final OverlayMappingDataBuilder overlay = new OverlayMappingDataBuilder(base);
+
+        overlay.getOrCreateClass("com/example/A").getMethod("run", "(I)V").getParameter((byte) 1).setName("amount");
+        overlay.getOrCreateClass("com/example/D").addJavadoc("Class D");
+        overlay.removeClass("com/example/B");
+
+        final MappingDataBuilder expected = createBase();
+        expected.getClass("com/example/A").getMethod("run", "(I)V").getParameter((byte) 1).setName("amount");
+        expected.createClass("com/example/D").addJavadoc("Class D");
+        expected.removeClass("com/example/B");
+
+        assertEquals(expected, MappingDataBuilder.copyOf(overlay));
+        assertEquals(createBase(), base);
+        assertNull(overlay.getClass("com/example/B"));
+        assertSame(base.getClass("com/example/C"), overlay.getClass("com/example/C"));
+        assertEquals(2, overlay.getModifiedClassCount());
+    }
+
+    @Test
+    public void recreated_class_starts_empty() {
+        final OverlayMappingDataBuilder overlay = new OverlayMappingDataBuilder(createBase());
+
+        overlay.removeClass("com/example/A");
+        assertTrue(overlay.getOrCreateClass("com/example/A").getMethods().isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package org.parchmentmc.compass.storage.input;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.gradle.api.NamedDomainObjectSet;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.compass.providers.IntermediateProvider;
+import org.parchmentmc.compass.storage.io.SingleFileDataIO;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputsReaderTest {
+    private static final int FILES_PER_DIRECTORY = 6;
+
+    @Test
+    public void parallel_parse_is_the_same_as_sequential_parse(@TempDir Path base) throws IOException {
+        // Both directories document the same class, field, and method, under their own names
+        writeInputs(base.resolve("official"), "official", "net/minecraft/Thing", "health", "tick",
+                "(Lnet/minecraft/Thing;)V");
+        writeInputs(base.resolve("srg"), "srg", "net/minecraft/C_1_", "f_2_", "m_3_", "(Lnet/minecraft/C_1_;)V");
+        final MappingDataBuilder json = new MappingDataBuilder();
+        json.createClass("net/minecraft/Thing").addJavadoc("official json");
+        SingleFileDataIO.INSTANCE.write(json, base.resolve("official/" + FILES_PER_DIRECTORY + ".json"));
+
+        // Neither are read, as there is no intermediate for the directory and the file is not an input file
+        Files.createDirectories(base.resolve("unknown"));
+        Files.write(base.resolve("unknown/0.txt"), "Malformed".getBytes(StandardCharsets.UTF_8));
+        Files.write(base.resolve("official/notes.md"), "Malformed".getBytes(StandardCharsets.UTF_8));
+
+        final InputsReader reader = new InputsReader(createIntermediates());
+        final MappingDataBuilder sequential = MappingDataBuilder.copyOf(reader.parse(base, 1));
+        final MappingDataBuilder parallel = MappingDataBuilder.copyOf(reader.parse(base, 4));
+
+        assertEquals(sequential, parallel);
+
+        // Merged in order of the directory names, then the file names
+        final List<String> expectedJavadoc = new ArrayList<>();
+        for (String dir : Arrays.asList("official", "srg")) {
+            for (int i = 0; i < FILES_PER_DIRECTORY; i++) {
+                expectedJavadoc.add(dir + " " + i);
+            }
+            if (dir.equals("official")) expectedJavadoc.add("official json");
+        }
+        final MappingDataBuilder.MutableClassData cls = parallel.getClass("net/minecraft/Thing");
+        assertNotNull(cls);
+        assertEquals(expectedJavadoc, cls.getJavadoc());
+        assertEquals(1, parallel.getClasses().size());
+        assertEquals(FILES_PER_DIRECTORY * 2, cls.getField("health").getJavadoc().size());
+        assertEquals("srg" + (FILES_PER_DIRECTORY - 1),
+                cls.getMethod("tick", "(Lnet/minecraft/Thing;)V").getParameter((byte) 1).getName());
+    }
+
+    private static void writeInputs(Path dir, String prefix, String className, String fieldName, String methodName,
+                                    String methodDescriptor) throws IOException {
+        Files.createDirectories(dir);
+        for (int i = 0; i < FILES_PER_DIRECTORY; i++) {
+            final List<String> lines = Arrays.asList(
+                    "class " + className,
+                    prefix + " " + i,
+                    "field " + fieldName + " I",
+                    "Field from " + prefix + " " + i,
+                    "method " + methodName + " " + methodDescriptor,
+                    "param 1 " + prefix + i);
+            Files.write(dir.resolve(i + ".txt"), lines, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static NamedDomainObjectSet<IntermediateProvider> createIntermediates() {
+        final NamedDomainObjectSet<IntermediateProvider> intermediates = ProjectBuilder.builder().build().getObjects()
+                .namedDomainObjectSet(IntermediateProvider.class);
+        intermediates.add(new TestProvider("official", createMapping("net/minecraft/Thing", "health", "tick")));
+        intermediates.add(new TestProvider("srg", createMapping("net/minecraft/C_1_", "f_2_", "m_3_")));
+        return intermediates;
+    }
+
+    // Maps the obfuscated class, field, and method to the given names
+    private static IMappingFile createMapping(String className, String fieldName, String methodName) {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder.IClass cls = builder.addClass("a", className);
+        cls.field("b", fieldName).descriptor("I");
+        cls.method("(La;)V", "c", methodName);
+        return builder.build().getMap("left", "right");
+    }
+
+    private static final class TestProvider extends IntermediateProvider {
+        private final IMappingFile mapping;
+
+        TestProvider(String name, IMappingFile mapping) {
+            super(name);
+            this.mapping = mapping;
+        }
+
+        @Override
+        public IMappingFile getMapping() {
+            return mapping;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.parchmentmc.compass.storage.input;
+
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimpleInputFileReaderTest {
+    private static final List<String> TERMINATORS = Arrays.asList("\n", "\r", "\r\n");
+
+    private static final List<String> VALID = Arrays.asList(
+            "# A comment before any definition",
+            "package com/example",
+            "The example package",
+            "",
+            "   ",
+            "class com/example/TestApp # The main class",
+            "\tA class with an indented javadoc  ",
+            "  # An indented comment",
+            "classy is not a definition word",
+            "class\tis not followed by a space",
+            "field value I",
+            "The value",
+            "method main ([Ljava/lang/String;)V",
+            "Main method of the application",
+            "",
+            "param 0 args",
+            "The arguments",
+            "param 1",
+            "method run ()V",
+            "class com/example/TestApp$Inner",
+            "An inner class",
+            "");
+
+    @Test
+    public void scanner_reads_the_same_as_regex_parser() throws IOException {
+        for (String terminator : TERMINATORS) {
+            // The final empty line becomes a trailing line terminator, as in a file
+            final String text = String.join(terminator, VALID);
+            final MappingDataBuilder expected = parseWithRegex(lines(text));
+            assertEquals(expected, parse(new StringReader(text)), () -> "Terminator " + escape(terminator));
+            // Every read ends within a line or between the characters of a line terminator
+            assertEquals(expected, parse(new ChunkedReader(new StringReader(text), 1)),
+                    () -> "Single characters with terminator " + escape(terminator));
+            assertEquals(expected, parse(new ChunkedReader(new StringReader(text), 7)),
+                    () -> "Chunks with terminator " + escape(terminator));
+        }
+    }
+
+    @Test
+    public void scanner_reads_lines_longer_than_the_buffer() throws IOException {
+        final char[] chars = new char[20000];
+        Arrays.fill(chars, 'a');
+        final List<String> lines = Arrays.asList("class com/example/Long", new String(chars), "field value I", "Short");
+
+        final MappingDataBuilder expected = parseWithRegex(lines);
+        for (String terminator : TERMINATORS) {
+            assertEquals(expected, parse(new StringReader(String.join(terminator, lines))),
+                    () -> "Terminator " + escape(terminator));
+        }
+    }
+
+    @Test
+    public void lines_read_the_same_as_regex_parser() throws IOException {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        SimpleInputFileReader.parseLines(builder, VALID);
+        assertEquals(parseWithRegex(VALID), builder);
+
+        // A trailing empty line is an empty documentation line
+        final List<String> trailingEmpty = Arrays.asList("class com/example/A", "Line", "", "");
+        final MappingDataBuilder trailing = new MappingDataBuilder();
+        SimpleInputFileReader.parseLines(trailing, trailingEmpty);
+        assertEquals(parseWithRegex(trailingEmpty), trailing);
+        assertEquals(Arrays.asList("Line", "", ""), trailing.getClass("com/example/A").getJavadoc());
+    }
+
+    @Test
+    public void scanner_reports_the_same_errors_as_regex_parser() {
+        final List<List<String>> invalid = Arrays.asList(
+                Arrays.asList("Documentation before any definition"),
+                Arrays.asList("# Comment", "", "package"),
+                Arrays.asList("package com/example", "package com example"),
+                Arrays.asList("package  com/example"),
+                Arrays.asList("class com/example/A", "class com/example/A B"),
+                Arrays.asList("field value I"),
+                Arrays.asList("class com/example/A", "field value"),
+                Arrays.asList("class com/example/A", "field value I J"),
+                Arrays.asList("method run ()V"),
+                Arrays.asList("class com/example/A", "# Comment", "method run"),
+                Arrays.asList("class com/example/A", "param 0 name"),
+                Arrays.asList("class com/example/A", "method run (II)V", "param 1 a b"));
+
+        for (List<String> lines : invalid) {
+            final IOException expected = assertThrows(IOException.class, () -> parseWithRegex(lines),
+                    () -> "Regex parser accepted " + lines);
+            // The regex parser counted lines from 0, while the scanner counts them from 1
+            final String expectedMessage = incrementLineNumber(expected.getMessage());
+
+            for (String terminator : TERMINATORS) {
+                final String text = String.join(terminator, lines) + terminator;
+                final IOException actual = assertThrows(IOException.class, () -> parse(new StringReader(text)),
+                        () -> "Scanner accepted " + lines);
+                assertEquals(expectedMessage, actual.getMessage(), () -> "Terminator " + escape(terminator));
+            }
+        }
+    }
+
+    @Test
+    public void scanner_reports_line_numbers_from_one() {
+        for (String terminator : TERMINATORS) {
+            final String text = String.join(terminator, "class com/example/A", "# Comment", "", "Docs",
+                    "field value");
+            final IOException e = assertThrows(IOException.class, () -> parse(new StringReader(text)));
+            assertEquals("Invalid field line at #5; incorrect no. of tokens: field value", e.getMessage(),
+                    () -> "Terminator " + escape(terminator));
+        }
+    }
+
+    private static MappingDataBuilder parse(Reader reader) throws IOException {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        SimpleInputFileReader.parse(builder, reader);
+        return builder;
+    }
+
+    // Splits the text into lines the same as Files#readAllLines, which the regex parser was used with
+    private static List<String> lines(String text) {
+        return new BufferedReader(new StringReader(text)).lines().collect(Collectors.toList());
+    }
+
+    private static String incrementLineNumber(String message) {
+        final Matcher matcher = Pattern.compile(" at #(\\d+)").matcher(message);
+        assertTrue(matcher.find(), () -> "No line number in " + message);
+        return message.substring(0, matcher.start(1)) + (Integer.parseInt(matcher.group(1)) + 1)
+                + message.substring(matcher.end(1));
+    }
+
+    private static String escape(String terminator) {
+        return terminator.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    // The regex parser which the scanner replaced, kept as the reference for its behavior
+    private static final Pattern DEFINITION_WORD = Pattern.compile("^(package|class|field|method|param) ");
+
+    private static MappingDataBuilder parseWithRegex(List<String> lines) throws IOException {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        Matcher defWordMatcher = DEFINITION_WORD.matcher("");
+
+        MappingDataBuilder.MutableHasJavadoc<?> javadoc = null;
+        MappingDataBuilder.MutableClassData classData = null;
+        MappingDataBuilder.MutableMethodData methodData = null;
+        for (int i = 0, linesSize = lines.size(); i < linesSize; i++) {
+            String line = lines.get(i).trim();
+
+            int commentIndex = line.indexOf('#');
+            if (commentIndex != -1) {
+                line = line.substring(0, commentIndex).trim();
+                if (line.isEmpty()) continue; // Skip lines with only comments
+            }
+
+            if (defWordMatcher.reset(line).find()) {
+                String word = defWordMatcher.group(1);
+                String[] split = line.split(" ");
+                switch (word) {
+                    case "package": {
+                        if (split.length != 2)
+                            throw new IOException("Invalid package line at #" + i + "; incorrect no. of tokens: " + line);
+                        javadoc = builder.createPackage(split[1]);
+                        break;
+                    }
+                    case "class": {
+                        if (split.length != 2)
+                            throw new IOException("Invalid class line at #" + i + "; incorrect no. of tokens: " + line);
+                        classData = builder.createClass(split[1]);
+                        javadoc = classData;
+                        break;
+                    }
+                    case "field": {
+                        if (split.length != 3)
+                            throw new IOException("Invalid field line at #" + i + "; incorrect no. of tokens: " + line);
+                        if (classData == null)
+                            throw new IOException("Invalid field line at #" + i + "; No enclosing class: " + line);
+                        javadoc = classData.createField(split[1], split[2]);
+                        break;
+                    }
+                    case "method": {
+                        if (split.length != 3)
+                            throw new IOException("Invalid method line at #" + i + "; incorrect no. of tokens: " + line);
+                        if (classData == null)
+                            throw new IOException("Invalid method line at #" + i + "; No enclosing class: " + line);
+                        methodData = classData.createMethod(split[1], split[2]);
+                        javadoc = methodData;
+                        break;
+                    }
+                    case "param": {
+                        if (split.length < 2 || split.length > 3)
+                            throw new IOException("Invalid param line at #" + i + "; incorrect no. of tokens: " + line);
+                        if (methodData == null)
+                            throw new IOException("Invalid param line at #" + i + "; No enclosing method: " + line);
+                        byte index = Byte.parseByte(split[1]);
+                        String name = split.length == 3 ? split[2] : null;
+                        javadoc = methodData.createParameter(index).setName(name);
+                        break;
+                    }
+                    default: {
+                        throw new IOException("Unrecognized token " + word + " at #" + i + ": " + line);
+                    }
+                }
+            } else {
+                if (javadoc == null)
+                    throw new IOException("Invalid documentation line at #" + i + "; No enclosing definition: " + line);
+                javadoc.addJavadoc(line);
+            }
+        }
+        return builder;
+    }
+
+    // Returns at most the given amount of characters from each read
+    private static final class ChunkedReader extends FilterReader {
+        private final int chunkSize;
+
+        ChunkedReader(Reader in, int chunkSize) {
+            super(in);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.parchmentmc.compass.storage.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.compass.util.JSONUtil;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.PackageData;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingDataIOTest {
+    @Test
+    public void unchanged_files_are_taken_from_the_snapshot(@TempDir Path tempDir) throws IOException {
+        final Path data = writeData(tempDir.resolve("data"));
+        final CountingIO counting = new CountingIO();
+        final CachingDataIO io = new CachingDataIO(ExplodedDataIO.INSTANCE, counting, tempDir.resolve("cache"));
+
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Arrays.asList("A.json", "B.json"), counting.takeParsed());
+
+        // Same size and modification time, so the file is not even hashed, and the snapshot is used as-is
+        final Path fileA = classFile(data, "A");
+        final FileTime modified = Files.getLastModifiedTime(fileA);
+        writeClass(fileA, "A", "Ahead");
+        Files.setLastModifiedTime(fileA, modified);
+
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data, 4)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+    }
+
+    @Test
+    public void changed_files_are_parsed_again(@TempDir Path tempDir) throws IOException {
+        final Path data = writeData(tempDir.resolve("data"));
+        final CountingIO counting = new CountingIO();
+        final CachingDataIO io = new CachingDataIO(ExplodedDataIO.INSTANCE, counting, tempDir.resolve("cache"));
+        io.read(data);
+        counting.takeParsed();
+
+        // Only the modification time has changed, so the hash matches and the snapshot is used
+        final Path fileB = classFile(data, "B");
+        Files.setLastModifiedTime(fileB, FileTime.fromMillis(Files.getLastModifiedTime(fileB).toMillis() + 10000));
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+
+        // Same size but a different modification time and contents, so the hash differs and the file is parsed
+        final Path fileA = classFile(data, "A");
+        final long modified = Files.getLastModifiedTime(fileA).toMillis();
+        final long size = Files.size(fileA);
+        writeClass(fileA, "A", "Ahead");
+        Files.setLastModifiedTime(fileA, FileTime.fromMillis(modified + 10000));
+        assertEquals(size, Files.size(fileA));
+
+        assertEquals(expected("A", "Ahead", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.singletonList("A.json"), counting.takeParsed());
+        assertEquals(expected("A", "Ahead", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+    }
+
+    @Test
+    public void deleted_and_added_files_are_tracked(@TempDir Path tempDir) throws IOException {
+        final Path data = writeData(tempDir.resolve("data"));
+        final CountingIO counting = new CountingIO();
+        final CachingDataIO io = new CachingDataIO(ExplodedDataIO.INSTANCE, counting, tempDir.resolve("cache"));
+        io.read(data);
+        counting.takeParsed();
+
+        Files.delete(classFile(data, "A"));
+        assertEquals(expected("B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+
+        writeClass(classFile(data, "C"), "C", "Charlie");
+        assertEquals(expected("B", "Bravo", "C", "Charlie"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.singletonList("C.json"), counting.takeParsed());
+        assertEquals(expected("B", "Bravo", "C", "Charlie"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+    }
+
+    @Test
+    public void classes_moved_between_files_are_tracked(@TempDir Path tempDir) throws IOException {
+        final Path data = writeData(tempDir.resolve("data"));
+        final CountingIO counting = new CountingIO();
+        final CachingDataIO io = new CachingDataIO(ExplodedDataIO.INSTANCE, counting, tempDir.resolve("cache"));
+        io.read(data);
+        counting.takeParsed();
+
+        // The class of B.json moves to A.json, replacing its class, and B.json is deleted
+        writeClass(classFile(data, "A"), "com/example/B", "Moved");
+        Files.delete(classFile(data, "B"));
+
+        assertEquals(expected("B", "Moved"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.singletonList("A.json"), counting.takeParsed());
+        assertEquals(expected("B", "Moved"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+    }
+
+    @Test
+    public void unusable_cache_is_read_again(@TempDir Path tempDir) throws IOException {
+        final Path data = writeData(tempDir.resolve("data"));
+        final Path cacheDir = tempDir.resolve("cache");
+        final CountingIO counting = new CountingIO();
+        final CachingDataIO io = new CachingDataIO(ExplodedDataIO.INSTANCE, counting, cacheDir);
+        io.read(data);
+        counting.takeParsed();
+        final Path manifest = findCacheFile(cacheDir, "manifest.json");
+        final Path snapshot = findCacheFile(cacheDir, "snapshot.bin");
+
+        // A corrupt manifest
+        Files.write(manifest, "{\"files\": [".getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Arrays.asList("A.json", "B.json"), counting.takeParsed());
+
+        // A manifest written for a different format
+        final String manifestText = new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8);
+        Files.write(manifest, manifestText.replace(CountingIO.class.getName(), "com.example.OtherIO")
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Arrays.asList("A.json", "B.json"), counting.takeParsed());
+
+        // A snapshot written by another read than the manifest, such as of a concurrent build
+        final Path other = writeData(tempDir.resolve("other"));
+        writeClass(classFile(other, "A"), "com/example/A", "Another");
+        final Path otherCache = tempDir.resolve("otherCache");
+        new CachingDataIO(ExplodedDataIO.INSTANCE, new CountingIO(), otherCache).read(other);
+        Files.copy(findCacheFile(otherCache, "snapshot.bin"), snapshot, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Arrays.asList("A.json", "B.json"), counting.takeParsed());
+
+        // The cache was written again each time, and is used by the next read
+        assertEquals(expected("A", "Alpha", "B", "Bravo"), MappingDataBuilder.copyOf(io.read(data)));
+        assertEquals(Collections.emptyList(), counting.takeParsed());
+        try (Stream<Path> files = Files.list(manifest.getParent())) {
+            assertEquals(Arrays.asList("manifest.json", "snapshot.bin"), files.map(p -> p.getFileName().toString())
+                    .sorted().collect(Collectors.toList()));
+        }
+    }
+
+    private static Path writeData(Path base) throws IOException {
+        ExplodedDataIO.INSTANCE.write(expected("A", "Alpha", "B", "Bravo"), base);
+        return base;
+    }
+
+    // Builds the data with each pair of simple class name and javadoc, in the example package
+    private static MappingDataBuilder expected(String... classes) {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        builder.createPackage("com/example").addJavadoc("The example package");
+        for (int i = 0; i < classes.length; i += 2) {
+            builder.createClass("com/example/" + classes[i]).addJavadoc(classes[i + 1]);
+        }
+        return builder;
+    }
+
+    private static Path classFile(Path base, String simpleName) {
+        return base.resolve("classes/com/example/" + simpleName + ".json");
+    }
+
+    private static void writeClass(Path file, String name, String javadoc) throws IOException {
+        final String className = name.contains("/") ? name : "com/example/" + name;
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        builder.createClass(className).addJavadoc(javadoc);
+        final String json = JSONUtil.MOSHI.adapter(ClassData.class).indent("  ")
+                .toJson(builder.getClass(className));
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Path findCacheFile(Path cacheDir, String name) throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            return files.filter(p -> p.getFileName().toString().equals(name)).findFirst()
+                    .orElseThrow(() -> new AssertionError("No " + name + " in " + cacheDir));
+        }
+    }
+
+    // Records the names of the class files which are parsed
+    private static final class CountingIO implements PartitionedDataIO {
+        private final List<String> parsed = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> takeParsed() {
+            final List<String> names = new ArrayList<>(parsed);
+            parsed.clear();
+            Collections.sort(names);
+            return names;
+        }
+
+        @Override
+        public List<Path> listClassFiles(Path base) throws IOException {
+            return ExplodedDataIO.INSTANCE.listClassFiles(base);
+        }
+
+        @Override
+        public Collection<? extends ClassData> readClassFile(Path file) throws IOException {
+            parsed.add(file.getFileName().toString());
+            return ExplodedDataIO.INSTANCE.readClassFile(file);
+        }
+
+        @Override
+        public SimpleVersion readVersion(Path base) throws IOException {
+            return ExplodedDataIO.INSTANCE.readVersion(base);
+        }
+
+        @Override
+        public Collection<? extends PackageData> readPackages(Path base) throws IOException {
+            return ExplodedDataIO.INSTANCE.readPackages(base);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.parchmentmc.compass.storage.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalDirectoryWriterTest {
+    private static final FileTime OLD_TIME = FileTime.fromMillis(0);
+
+    @Test
+    public void unchanged_files_are_not_touched(@TempDir Path base) throws IOException {
+        final Path file = base.resolve("a/unchanged.txt");
+        write(file, "Unchanged");
+        Files.setLastModifiedTime(file, OLD_TIME);
+
+        final IncrementalDirectoryWriter writer = new IncrementalDirectoryWriter(base, true);
+        writer.write(file, bytes("Unchanged"));
+        writer.finish();
+
+        assertEquals(OLD_TIME, Files.getLastModifiedTime(file));
+        assertEquals("Unchanged", read(file));
+    }
+
+    @Test
+    public void changed_files_are_rewritten(@TempDir Path base) throws IOException {
+        final Path sameSize = base.resolve("same.txt");
+        final Path otherSize = base.resolve("other.txt");
+        write(sameSize, "Before");
+        write(otherSize, "Before");
+        Files.setLastModifiedTime(sameSize, OLD_TIME);
+        Files.setLastModifiedTime(otherSize, OLD_TIME);
+
+        final IncrementalDirectoryWriter writer = new IncrementalDirectoryWriter(base, true);
+        writer.write(sameSize, bytes("Afters"));
+        writer.write(otherSize, bytes("After, longer"));
+        writer.write(base.resolve("new/added.txt"), bytes("Added"));
+        writer.finish();
+
+        assertEquals("Afters", read(sameSize));
+        assertEquals("After, longer", read(otherSize));
+        assertEquals("Added", read(base.resolve("new/added.txt")));
+        assertNotEquals(OLD_TIME, Files.getLastModifiedTime(sameSize));
+        assertNotEquals(OLD_TIME, Files.getLastModifiedTime(otherSize));
+    }
+
+    @Test
+    public void finish_deletes_files_not_written_and_empty_directories(@TempDir Path base) throws IOException {
+        write(base.resolve("kept.txt"), "Kept");
+        write(base.resolve("a/b/removed.txt"), "Removed");
+        write(base.resolve("a/kept.txt"), "Kept");
+        write(base.resolve("c/removed.txt"), "Removed");
+        Files.createDirectories(base.resolve("empty/nested"));
+
+        final IncrementalDirectoryWriter writer = new IncrementalDirectoryWriter(base, true);
+        writer.write(base.resolve("kept.txt"), bytes("Kept"));
+        writer.write(base.resolve("a/kept.txt"), bytes("Kept"));
+
+        // Nothing is deleted until the writer is finished
+        assertTrue(Files.exists(base.resolve("a/b/removed.txt")));
+        assertTrue(Files.exists(base.resolve("c/removed.txt")));
+
+        writer.finish();
+
+        assertEquals(Arrays.asList("a", "a/kept.txt", "kept.txt"), list(base));
+    }
+
+    @Test
+    public void non_incremental_mode_clears_the_directory(@TempDir Path base) throws IOException {
+        final Path file = base.resolve("a/unchanged.txt");
+        write(file, "Unchanged");
+        Files.setLastModifiedTime(file, OLD_TIME);
+        write(base.resolve("b/removed.txt"), "Removed");
+
+        final IncrementalDirectoryWriter writer = new IncrementalDirectoryWriter(base, false);
+        // The directory is cleared as soon as the writer is created
+        assertTrue(Files.isDirectory(base));
+        assertEquals(Collections.emptyList(), list(base));
+
+        writer.write(file, bytes("Unchanged"));
+        writer.finish();
+
+        assertEquals("Unchanged", read(file));
+        assertNotEquals(OLD_TIME, Files.getLastModifiedTime(file));
+        assertEquals(Arrays.asList("a", "a/unchanged.txt"), list(base));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes(text));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    // Relative paths of everything under the directory, sorted
+    private static List<String> list(Path base) throws IOException {
+        try (Stream<Path> walk = Files.walk(base)) {
+            return walk.filter(p -> !p.equals(base))
+                    .map(p -> base.relativize(p).toString().replace('\\', '/'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.parchmentmc.compass.storage.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.PackageData;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFileDataIOTest {
+    public static final MappingDataBuilder data = new MappingDataBuilder();
+
+    static {
+        data.createPackage("com/example")
+                .addJavadoc("The example package");
+        data.createClass("com/example/TestApp")
+                .addJavadoc("A class of the app")
+                .addJavadoc("")
+                .createField("instance", "Lcom/example/TestApp;")
+                .addJavadoc("The instance \u00e9\u00e8 of the app");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("main", "([Ljava/lang/String;)V")
+                .addJavadoc("Main method of the application")
+                .createParameter((byte) 0).setName("args").setJavadoc("The arguments");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("run", "(JI)V")
+                .createParameter((byte) 3).setJavadoc("An unnamed parameter");
+        data.createClass("com/example/TestApp$Inner")
+                .addJavadoc("An inner class");
+    }
+
+    @Test
+    public void streamed_write_reads_back_the_same_as_write(@TempDir Path tempDir) throws IOException {
+        for (SingleFileDataIO io : Arrays.asList(SingleFileDataIO.INSTANCE, SingleFileDataIO.COMPRESSED_INSTANCE)) {
+            final Path written = tempDir.resolve("written.json");
+            final Path streamed = tempDir.resolve("streamed.json");
+
+            io.write(data, written);
+            try (StreamingDataIO.ClassWriter writer = io.openWriter(streamed,
+                    VersionedMappingDataContainer.CURRENT_FORMAT, data.getPackages())) {
+                for (ClassData cls : data.getClasses()) {
+                    writer.write(cls);
+                }
+            }
+
+            final VersionedMappingDataContainer read = io.read(streamed);
+            assertEquals(VersionedMappingDataContainer.CURRENT_FORMAT, read.getFormatVersion());
+            assertEquals(MappingDataBuilder.copyOf(io.read(written)), MappingDataBuilder.copyOf(read));
+            assertEquals(data, MappingDataBuilder.copyOf(read));
+        }
+    }
+
+    @Test
+    public void streamed_read_visits_the_same_data_as_read(@TempDir Path tempDir) throws IOException {
+        for (SingleFileDataIO io : Arrays.asList(SingleFileDataIO.INSTANCE, SingleFileDataIO.COMPRESSED_INSTANCE)) {
+            final Path file = tempDir.resolve("data.json");
+            io.write(data, file);
+
+            final List<SimpleVersion> versions = new ArrayList<>();
+            final List<PackageData> packages = new ArrayList<>();
+            final List<ClassData> classes = new ArrayList<>();
+            io.read(file, new StreamingDataIO.Visitor() {
+                @Override
+                public void visitVersion(SimpleVersion version) {
+                    versions.add(version);
+                }
+
+                @Override
+                public void visitPackage(PackageData packageData) {
+                    packages.add(packageData);
+                }
+
+                @Override
+                public void visitClass(ClassData classData) {
+                    classes.add(classData);
+                }
+            });
+
+            final VersionedMappingDataContainer read = io.read(file);
+            assertEquals(Arrays.asList(read.getFormatVersion()), versions);
+            assertEquals(MappingDataBuilder.copyOf(read),
+                    MappingDataBuilder.copyOf(new ImmutableMappingDataContainer(packages, classes)));
+            assertEquals(data, MappingDataBuilder.copyOf(new ImmutableMappingDataContainer(packages, classes)));
+        }
+    }
+}
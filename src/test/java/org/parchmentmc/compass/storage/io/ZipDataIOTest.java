@@ -0,0 +1,88 @@
+package org.parchmentmc.compass.storage.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipDataIOTest {
+    public static final MappingDataBuilder data = new MappingDataBuilder();
+
+    static {
+        data.createPackage("com/example")
+                .addJavadoc("The example package");
+        data.createClass("com/example/TestApp")
+                .addJavadoc("A class of the app")
+                .createField("instance", "Lcom/example/TestApp;")
+                .addJavadoc("The instance of the app");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("main", "([Ljava/lang/String;)V")
+                .addJavadoc("Main method of the application")
+                .createParameter((byte) 0).setName("args").setJavadoc("The arguments");
+        data.createClass("com/example/TestApp$Inner")
+                .addJavadoc("An inner class");
+    }
+
+    // The data with an undocumented class, which is not written
+    private static MappingDataBuilder withUndocumented() {
+        final MappingDataBuilder copy = MappingDataBuilder.copyOf(data);
+        copy.createClass("com/example/Undocumented");
+        return copy;
+    }
+
+    @Test
+    public void written_data_reads_back_identically(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("data.zip");
+
+        ZipDataIO.INSTANCE.write(withUndocumented(), file);
+
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            assertNull(zip.getEntry("classes/com/example/Undocumented.json"));
+            assertNotNull(zip.getEntry("classes/com/example/TestApp.json"));
+        }
+        final VersionedMappingDataContainer read = ZipDataIO.INSTANCE.read(file);
+        assertEquals(VersionedMappingDataContainer.CURRENT_FORMAT, read.getFormatVersion());
+        assertEquals(data, MappingDataBuilder.copyOf(read));
+        assertEquals(data, MappingDataBuilder.copyOf(ZipDataIO.INSTANCE.read(file, 4)));
+    }
+
+    @Test
+    public void streamed_data_reads_back_identically(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("data.zip");
+        final MappingDataBuilder written = withUndocumented();
+
+        ZipDataIO.INSTANCE.write(file, VersionedMappingDataContainer.CURRENT_FORMAT, written.getPackages(),
+                written.getClasses().iterator());
+
+        final List<String> visited = new ArrayList<>();
+        ZipDataIO.INSTANCE.read(file, classData -> visited.add(classData.getName()));
+        // In order of the entry names, where "TestApp$Inner.json" comes before "TestApp.json"
+        assertEquals(Arrays.asList("com/example/TestApp$Inner", "com/example/TestApp"), visited);
+        assertEquals(data, MappingDataBuilder.copyOf(ZipDataIO.INSTANCE.read(file)));
+    }
+
+    @Test
+    public void opened_data_decodes_classes_on_access(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("data.zip");
+        ZipDataIO.INSTANCE.write(withUndocumented(), file);
+
+        final VersionedMappingDataContainer opened = ZipDataIO.INSTANCE.open(file, 1);
+        try {
+            assertNull(opened.getClass("com/example/Undocumented"));
+            assertEquals("An inner class", opened.getClass("com/example/TestApp$Inner").getJavadoc().get(0));
+            assertEquals(data, MappingDataBuilder.copyOf(opened));
+        } finally {
+            ((Closeable) opened).close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.parchmentmc.compass.storage.io.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryDataIOTest {
+    public static final MappingDataBuilder data = new MappingDataBuilder();
+
+    static {
+        data.createPackage("com/example")
+                .addJavadoc("The example package");
+        data.createClass("com/example/TestApp")
+                .addJavadoc("A class of the app")
+                .addJavadoc("")
+                .createField("instance", "Lcom/example/TestApp;")
+                .addJavadoc("The instance \u00e9\u00e8 of the app");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("main", "([Ljava/lang/String;)V")
+                .addJavadoc("Main method of the application")
+                .createParameter((byte) 0).setName("args").setJavadoc("The arguments");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("run", "(JI)V")
+                .createParameter((byte) 3).setJavadoc("An unnamed parameter");
+        data.createClass("com/example/TestApp$Inner");
+    }
+
+    @Test
+    public void written_data_reads_back_identically(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("data.bin");
+
+        BinaryDataIO.INSTANCE.write(data, file);
+        final VersionedMappingDataContainer read = BinaryDataIO.INSTANCE.read(file);
+
+        assertEquals(VersionedMappingDataContainer.CURRENT_FORMAT, read.getFormatVersion());
+        assertEquals(data, MappingDataBuilder.copyOf(read));
+    }
+
+    @Test
+    public void opened_data_looks_up_classes_lazily(@TempDir Path tempDir) throws IOException {
+        final Path file = tempDir.resolve("data.bin");
+
+        BinaryDataIO.INSTANCE.write(data, file);
+        final VersionedMappingDataContainer opened = BinaryDataIO.INSTANCE.open(file, 1);
+
+        assertNull(opened.getClass("com/example/Missing"));
+        assertEquals(data.getClass("com/example/TestApp$Inner").getName(),
+                opened.getClass("com/example/TestApp$Inner").getName());
+        assertEquals(data, MappingDataBuilder.copyOf(opened));
+    }
+}
@@ -0,0 +1,80 @@
+package org.parchmentmc.compass.storage.io.enigma;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnigmaFormattedExplodedIOTest {
+    private static final int OUTER_CLASSES = 20;
+    private static final int PARALLELISM = 4;
+
+    @Test
+    public void parallel_round_trip_is_the_same_as_sequential(@TempDir Path tempDir) throws IOException {
+        final VersionedMappingDataContainer data = new VersionedMDCDelegate<>(
+                VersionedMappingDataContainer.CURRENT_FORMAT, createData());
+        final EnigmaFormattedExplodedIO io = EnigmaFormattedExplodedIO.INSTANCE;
+
+        final Path sequential = tempDir.resolve("sequential");
+        final Path parallel = tempDir.resolve("parallel");
+        io.write(data, sequential, 1);
+        io.write(data, parallel, PARALLELISM);
+
+        assertEquals(OUTER_CLASSES + 2, files(sequential).size()); // Along with info.json and packages.json
+        assertEquals(files(sequential), files(parallel));
+
+        final MappingDataBuilder sequentialRead = MappingDataBuilder.copyOf(io.read(sequential, 1));
+        final MappingDataBuilder parallelRead = MappingDataBuilder.copyOf(io.read(parallel, PARALLELISM));
+        assertEquals(sequentialRead, parallelRead);
+        assertEquals(MappingDataBuilder.copyOf(data), parallelRead);
+    }
+
+    // Classes in several packages, each with inner classes, so files are written in separate directories
+    private static MappingDataBuilder createData() {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        for (int i = 0; i < OUTER_CLASSES; i++) {
+            final String outer = "com/example/pkg" + (i % 3) + "/Class" + i;
+            final MappingDataBuilder.MutableClassData cls = builder.createClass(outer)
+                    .addJavadoc("Class " + i);
+            cls.createField("value" + i, "I").addJavadoc("The value of " + i);
+            cls.createMethod("run", "(IJ)V")
+                    .addJavadoc("Runs " + i)
+                    .createParameter((byte) 1).setName("count").setJavadoc("The count of " + i);
+            cls.getMethod("run", "(IJ)V").createParameter((byte) 2).setName("time");
+
+            builder.createClass(outer + "$Inner")
+                    .addJavadoc("Inner class of " + i)
+                    .createField("outer", "L" + outer + ";");
+            if (i % 2 == 0) {
+                builder.createClass(outer + "$Inner$" + (i + 1))
+                        .addJavadoc("Anonymous class within the inner class of " + i);
+            }
+        }
+        return builder;
+    }
+
+    // Relative paths of the files under the directory, to their contents
+    private static Map<String, String> files(Path base) throws IOException {
+        final Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> walk = Files.walk(base)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (Files.isRegularFile(path)) {
+                    files.put(base.relativize(path).toString().replace('\\', '/'),
+                            new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,190 @@
+package org.parchmentmc.compass.storage.io.enigma;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.parchmentmc.compass.storage.io.enigma.EnigmaFormattedExplodedIO.*;
+
+/**
+ * Compares the {@link EnigmaReader} against the previous regex-based reader, over a generated tree of a size similar
+ * to that of a Minecraft version.
+ */
+@Tag("benchmark")
+public class EnigmaReaderBenchmark {
+    private static final int OUTER_CLASSES = 6000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void compare_with_legacy_reader() throws IOException {
+        final List<String> files = generateFiles();
+
+        // Both readers must agree before the timings mean anything
+        assertEquals(readAll(files, false), readAll(files, true));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            readAll(files, true);
+            readAll(files, false);
+        }
+
+        long legacy = 0;
+        long current = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            readAll(files, true);
+            legacy += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            readAll(files, false);
+            current += System.nanoTime() - start;
+        }
+
+        System.out.printf("Enigma reader over %d files: legacy %.1f ms, current %.1f ms per round%n",
+                files.size(), legacy / 1e6 / ROUNDS, current / 1e6 / ROUNDS);
+    }
+
+    private static MappingDataBuilder readAll(List<String> files, boolean legacy) throws IOException {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        for (String file : files) {
+            if (legacy) {
+                LegacyEnigmaReader.readFile(builder, new BufferedReader(new StringReader(file)));
+            } else {
+                EnigmaReader.readFile(builder, new StringReader(file));
+            }
+        }
+        return builder;
+    }
+
+    private static List<String> generateFiles() {
+        final Random random = new Random(42);
+        final List<String> files = new ArrayList<>(OUTER_CLASSES);
+        for (int c = 0; c < OUTER_CLASSES; c++) {
+            final StringBuilder file = new StringBuilder();
+            final String outer = "net/minecraft/pkg" + (c % 60) + "/Class" + c;
+            appendClass(file, random, 0, outer);
+            final int inner = random.nextInt(4);
+            for (int i = 0; i < inner; i++) {
+                appendClass(file, random, 1, "Inner" + i);
+                if (random.nextBoolean()) appendClass(file, random, 2, "Nested" + i);
+            }
+            // Some files with Windows line endings, which both readers should handle the same
+            files.add(c % 7 == 0 ? file.toString().replace("\n", "\r\n") : file.toString());
+        }
+        return files;
+    }
+
+    private static void appendClass(StringBuilder file, Random random, int indent, String name) {
+        indent(file, indent).append(CLASS).append(' ').append(name).append('\n');
+        comments(file, random, indent + 1);
+
+        final int fields = random.nextInt(12);
+        for (int f = 0; f < fields; f++) {
+            indent(file, indent + 1).append(FIELD).append(" field").append(f).append(" Ljava/lang/String;\n");
+            comments(file, random, indent + 2);
+        }
+
+        final int methods = random.nextInt(20);
+        for (int m = 0; m < methods; m++) {
+            indent(file, indent + 1).append(METHOD).append(" method").append(m)
+                    .append(" (ILjava/lang/String;Lnet/minecraft/world/level/Level;)V\n");
+            comments(file, random, indent + 2);
+            for (int p = 1; p <= 3; p++) {
+                if (random.nextBoolean()) continue;
+                indent(file, indent + 2).append(PARAM).append(' ').append(p).append(" param").append(p).append('\n');
+                comments(file, random, indent + 3);
+            }
+        }
+    }
+
+    private static void comments(StringBuilder file, Random random, int indent) {
+        final int lines = random.nextInt(4) - 1;
+        for (int l = 0; l < lines; l++) {
+            indent(file, indent).append(COMMENT)
+                    .append(" Returns the {@link Level} this entity\tis in, or {@code null} if it was removed.\n");
+        }
+        if (lines == 0) indent(file, indent).append("comment\n"); // Empty paragraph line, with a lowercase keyword
+    }
+
+    private static StringBuilder indent(StringBuilder file, int indent) {
+        for (int i = 0; i < indent; i++) file.append('\t');
+        return file;
+    }
+
+    // The reader as it was before the cursor-based scanner, for comparison
+    static final class LegacyEnigmaReader {
+        static void readFile(MappingDataBuilder builder, BufferedReader reader) throws IOException {
+            MappingDataBuilder.MutableClassData classData = null;
+            MappingDataBuilder.MutableMethodData methodData = null;
+            MappingDataBuilder.MutableHasJavadoc<?> javadoc = null;
+            int prevClassIndent = -1;
+            Deque<String> classNames = new ArrayDeque<>();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] tokens = line.trim().split("\\s");
+
+                String firstToken = tokens[0].toUpperCase(Locale.ROOT);
+                switch (firstToken) {
+                    case CLASS: {
+                        int indent = countIndent(line);
+                        String className = tokens[1];
+
+                        for (int diff = prevClassIndent - indent; diff >= 0; diff--) {
+                            classNames.pop();
+                        }
+                        prevClassIndent = indent;
+
+                        if (!classNames.isEmpty()) { // Within a class
+                            className = classNames.peek() + '$' + className;
+                        }
+                        classNames.push(className);
+                        javadoc = classData = builder.createClass(className);
+
+                        break;
+                    }
+                    case FIELD: {
+                        if (classData == null) throw new IOException("Unexpected field line without class parent");
+                        javadoc = classData.createField(tokens[1], tokens[2]);
+                        break;
+                    }
+                    case METHOD: {
+                        if (classData == null) throw new IOException("Unexpected method line without class parent");
+                        javadoc = methodData = classData.createMethod(tokens[1], tokens[2]);
+                        break;
+                    }
+                    case PARAM: {
+                        if (methodData == null) throw new IOException("Unexpected arg line without method parent");
+                        javadoc = methodData.createParameter(Byte.parseByte(tokens[1]))
+                                .setName(tokens[2]);
+                        break;
+                    }
+                    case COMMENT: {
+                        if (javadoc == null)
+                            throw new IOException("Unexpected comment line without javadoc-holding parent");
+                        final ArrayList<String> strings = new ArrayList<>(Arrays.asList(tokens));
+                        if (strings.size() > 0) {
+                            strings.remove(0);
+                        }
+                        javadoc.addJavadoc(String.join(" ", strings));
+                        break;
+                    }
+                }
+            }
+        }
+
+        static int countIndent(String line) {
+            int indent = 0;
+            while (line.charAt(indent) == '\t') {
+                indent++;
+            }
+            return indent;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.parchmentmc.compass.storage.io.enigma;
+
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.ImmutableMappingDataContainer;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+import org.parchmentmc.feather.mapping.MappingDataContainer.ClassData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.FieldData;
+import org.parchmentmc.feather.mapping.MappingDataContainer.MethodData;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnigmaWriterTest {
+    @Test
+    public void writes_nested_classes_and_fields_in_order() throws IOException {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        final MappingDataBuilder.MutableClassData outer = builder.createClass("com/example/Outer")
+                .addJavadoc("The outer class")
+                .addJavadoc("");
+        outer.createField("value", "I").addJavadoc("The value");
+        outer.createField("count", "J");
+        outer.createMethod("run", "(I)V")
+                .addJavadoc("Runs")
+                .createParameter((byte) 1).setName("speed").setJavadoc("The speed");
+        outer.getMethod("run", "(I)V").createParameter((byte) 2).setJavadoc("An unnamed parameter");
+        builder.createClass("com/example/Outer$Inner")
+                .createField("value", "I");
+        builder.createClass("com/example/Outer$Inner$Deep")
+                .addJavadoc("A deeply nested class");
+        builder.createClass("com/example/Outer$1")
+                .addJavadoc("An anonymous class");
+        builder.createClass("com/example/Outer$Zeta");
+        // The enclosing class is not in the data, so an empty class is written in its place
+        builder.createClass("com/example/Outer$Missing$Nested")
+                .addJavadoc("Nested in a missing class");
+
+        // Fields sorting the same as another are only written once, with the first of them kept
+        final List<ClassData> classes = new ArrayList<>();
+        for (ClassData cls : builder.getClasses()) {
+            classes.add(cls.getName().equals("com/example/Outer") ? new DuplicateFieldClass(cls) : cls);
+        }
+        final MappingDataContainer data = new ImmutableMappingDataContainer(Collections.emptyList(), classes);
+
+        // Given in reverse order of their names, so the sorting puts every class after its enclosing classes
+        final List<EnigmaWriter.ClassName> names = new ArrayList<>();
+        for (ClassData cls : classes) {
+            names.add(0, new EnigmaWriter.ClassName(cls.getName()));
+        }
+        names.sort(EnigmaWriter.ClassName::compare);
+
+        final StringWriter writer = new StringWriter();
+        EnigmaWriter.writeFile(writer, data, "com/example/Outer", names);
+
+        final String expected = String.join("\n",
+                "CLASS com/example/Outer",
+                "\tCOMMENT The outer class",
+                "\tCOMMENT",
+                "\tFIELD count J",
+                "\tFIELD value I",
+                "\t\tCOMMENT The value",
+                "\tMETHOD run (I)V",
+                "\t\tCOMMENT Runs",
+                "\t\tARG 1 speed",
+                "\t\t\tCOMMENT The speed",
+                "\tCLASS 1",
+                "\t\tCOMMENT An anonymous class",
+                "\tCLASS Zeta",
+                "\tCLASS Inner",
+                "\t\tFIELD value I",
+                "\t\tCLASS Deep",
+                "\t\t\tCOMMENT A deeply nested class",
+                "\tCLASS Missing",
+                "\t\tCLASS Nested",
+                "\t\t\tCOMMENT Nested in a missing class",
+                "");
+        assertEquals(expected, writer.toString());
+    }
+
+    // Has a second field with the same name and descriptor as an existing field, after it
+    private static final class DuplicateFieldClass implements ClassData {
+        private final ClassData delegate;
+        private final List<FieldData> fields;
+
+        DuplicateFieldClass(ClassData delegate) {
+            this.delegate = delegate;
+            this.fields = new ArrayList<>(delegate.getFields());
+            this.fields.add(new ImmutableMappingDataContainer.ImmutableFieldData("value", "I",
+                    Arrays.asList("A duplicate value")));
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public List<String> getJavadoc() {
+            return delegate.getJavadoc();
+        }
+
+        @Override
+        public Collection<? extends FieldData> getFields() {
+            return fields;
+        }
+
+        @Override
+        public FieldData getField(String name) {
+            return delegate.getField(name);
+        }
+
+        @Override
+        public Collection<? extends MethodData> getMethods() {
+            return delegate.getMethods();
+        }
+
+        @Override
+        public MethodData getMethod(String name, String descriptor) {
+            return delegate.getMethod(name, descriptor);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.parchmentmc.compass.tasks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.parchmentmc.compass.storage.io.ExplodedDataIO;
+import org.parchmentmc.compass.storage.io.MappingDataIO;
+import org.parchmentmc.compass.storage.io.MappingIOFormat;
+import org.parchmentmc.compass.storage.io.SingleFileDataIO;
+import org.parchmentmc.compass.storage.io.StreamingDataIO;
+import org.parchmentmc.compass.storage.io.ZipDataIO;
+import org.parchmentmc.compass.storage.io.enigma.EnigmaFormattedExplodedIO;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+import org.parchmentmc.feather.util.SimpleVersion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CopyDataTest {
+    public static final MappingDataBuilder production = new MappingDataBuilder();
+    public static final MappingDataBuilder staging = new MappingDataBuilder();
+
+    static {
+        production.createPackage("com/example")
+                .addJavadoc("The example package");
+        production.createClass("com/example/Shared")
+                .addJavadoc("A class in both")
+                .createField("value", "I")
+                .addJavadoc("The value");
+        production.createClass("com/example/Removed")
+                .addJavadoc("A class only in production");
+
+        staging.createPackage("com/example")
+                .addJavadoc("The example package");
+        staging.createClass("com/example/Shared")
+                .addJavadoc("A class in both")
+                .createField("value", "I")
+                .addJavadoc("The value");
+        staging.createClass("com/example/TestApp")
+                .addJavadoc("A class of the app")
+                .createMethod("main", "([Ljava/lang/String;)V")
+                .addJavadoc("Main method of the application")
+                .createParameter((byte) 0).setName("args").setJavadoc("The arguments");
+        staging.createClass("com/example/TestApp$Inner")
+                .addJavadoc("An inner class");
+        staging.createClass("com/example/Other")
+                .addJavadoc("Another class");
+    }
+
+    @Test
+    public void failed_transcode_deletes_nothing_from_existing_directory(@TempDir Path tempDir) throws IOException {
+        final Path input = tempDir.resolve("staging.json");
+        final Path output = tempDir.resolve("production");
+        SingleFileDataIO.INSTANCE.write(staging, input);
+        ExplodedDataIO.INSTANCE.write(production, output);
+        final Map<String, String> before = snapshot(output);
+
+        assertThrows(IOException.class, () -> CopyData.copy(new FailingInput(2), input,
+                MappingIOFormat.MDC_EXPLODED, output, 1));
+
+        // The classes read before the failure may be written, but the files which were not written are kept
+        final Map<String, String> after = snapshot(output);
+        assertTrue(after.entrySet().containsAll(before.entrySet()), () -> "Changed from " + before + " to " + after);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(Arrays.asList("production", "staging.json"),
+                    files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void transcode_into_directory_only_rewrites_changed_files(@TempDir Path tempDir) throws IOException {
+        final Path input = tempDir.resolve("staging.json");
+        final Path output = tempDir.resolve("production");
+        SingleFileDataIO.INSTANCE.write(staging, input);
+        ExplodedDataIO.INSTANCE.write(production, output);
+        final Path sharedFile = output.resolve("classes/com/example/Shared.json");
+        final FileTime unchangedTime = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(sharedFile, unchangedTime);
+
+        CopyData.copy(SingleFileDataIO.INSTANCE, input, MappingIOFormat.MDC_EXPLODED, output, 1);
+
+        assertEquals(staging, MappingDataBuilder.copyOf(ExplodedDataIO.INSTANCE.read(output)));
+        assertFalse(Files.exists(output.resolve("classes/com/example/Removed.json")));
+        assertEquals(unchangedTime, Files.getLastModifiedTime(sharedFile));
+    }
+
+    @Test
+    public void failed_transcode_leaves_existing_file_unchanged(@TempDir Path tempDir) throws IOException {
+        final Path input = tempDir.resolve("staging.json");
+        final Path output = tempDir.resolve("production.zip");
+        SingleFileDataIO.INSTANCE.write(staging, input);
+        ZipDataIO.INSTANCE.write(production, output);
+        final Map<String, String> before = snapshot(tempDir);
+
+        assertThrows(IOException.class, () -> CopyData.copy(new FailingInput(2), input,
+                MappingIOFormat.MDC_ZIP, output, 1));
+
+        assertEquals(before, snapshot(tempDir));
+    }
+
+    @Test
+    public void transcode_replaces_existing_output(@TempDir Path tempDir) throws IOException {
+        final Path input = tempDir.resolve("staging.json");
+        final Path output = tempDir.resolve("production");
+        SingleFileDataIO.INSTANCE.write(staging, input);
+        ExplodedDataIO.INSTANCE.write(production, output);
+
+        CopyData.copy(SingleFileDataIO.INSTANCE, input, MappingIOFormat.MDC_EXPLODED, output, 1);
+
+        assertEquals(staging, MappingDataBuilder.copyOf(ExplodedDataIO.INSTANCE.read(output)));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(Arrays.asList("production", "staging.json"),
+                    files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void transcodes_classes_in_any_order_into_enigma(@TempDir Path tempDir) throws IOException {
+        final Path input = tempDir.resolve("staging.json");
+        final Path output = tempDir.resolve("production");
+        // The inner class comes after a class of another outer class
+        final Collection<? extends MappingDataContainer.ClassData> classes = Arrays.asList(
+                staging.getClass("com/example/TestApp"), staging.getClass("com/example/Other"),
+                staging.getClass("com/example/TestApp$Inner"), staging.getClass("com/example/Shared"));
+        SingleFileDataIO.INSTANCE.write(input, VersionedMappingDataContainer.CURRENT_FORMAT, staging.getPackages(),
+                classes.iterator());
+
+        CopyData.copy(SingleFileDataIO.INSTANCE, input, MappingIOFormat.ENIGMA_EXPLODED, output, 1);
+
+        assertEquals(staging, MappingDataBuilder.copyOf(EnigmaFormattedExplodedIO.INSTANCE.read(output)));
+    }
+
+    @Test
+    public void same_format_copy_only_rewrites_changed_files(@TempDir Path tempDir) throws IOException {
+        final Path input = tempDir.resolve("staging");
+        final Path output = tempDir.resolve("production");
+        ExplodedDataIO.INSTANCE.write(staging, input);
+        ExplodedDataIO.INSTANCE.write(production, output);
+        final Path sharedFile = output.resolve("classes/com/example/Shared.json");
+        final FileTime unchangedTime = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(sharedFile, unchangedTime);
+
+        CopyData.copy(ExplodedDataIO.INSTANCE, input, MappingIOFormat.MDC_EXPLODED, output, 1);
+
+        assertEquals(staging, MappingDataBuilder.copyOf(ExplodedDataIO.INSTANCE.read(output)));
+        assertFalse(Files.exists(output.resolve("classes/com/example/Removed.json")));
+        assertEquals(unchangedTime, Files.getLastModifiedTime(sharedFile));
+
+        // The copies are separate files, so changing the input afterwards does not affect the output
+        final Path inputFile = input.resolve("classes/com/example/TestApp.json");
+        final Path outputFile = output.resolve("classes/com/example/TestApp.json");
+        final byte[] copied = Files.readAllBytes(outputFile);
+        assertFalse(Files.isSameFile(inputFile, outputFile));
+        Files.write(inputFile, "{}".getBytes(StandardCharsets.UTF_8));
+        assertArrayEquals(copied, Files.readAllBytes(outputFile));
+    }
+
+    // Relative paths of all files under the directory, to their contents
+    private static Map<String, String> snapshot(Path dir) throws IOException {
+        final Map<String, String> files = new TreeMap<>();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (Files.isRegularFile(path)) {
+                    files.put(dir.relativize(path).toString(),
+                            new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1));
+                } else if (!path.equals(dir)) {
+                    files.put(dir.relativize(path).toString(), "<directory>");
+                }
+            }
+        }
+        return files;
+    }
+
+    // Reads single files, failing after the given amount of classes were read
+    private static final class FailingInput implements MappingDataIO, StreamingDataIO {
+        private final int failAfter;
+
+        FailingInput(int failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public void read(Path input, Visitor visitor) throws IOException {
+            SingleFileDataIO.INSTANCE.read(input, new Visitor() {
+                private int classes = 0;
+
+                @Override
+                public void visitVersion(SimpleVersion version) throws IOException {
+                    visitor.visitVersion(version);
+                }
+
+                @Override
+                public void visitPackage(MappingDataContainer.PackageData packageData) throws IOException {
+                    visitor.visitPackage(packageData);
+                }
+
+                @Override
+                public void visitClass(MappingDataContainer.ClassData classData) throws IOException {
+                    if (classes++ == failAfter) throw new IOException("Failed to read " + classData.getName());
+                    visitor.visitClass(classData);
+                }
+            });
+        }
+
+        @Override
+        public ClassWriter openWriter(Path output, SimpleVersion version,
+                                      Collection<? extends MappingDataContainer.PackageData> packages) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(VersionedMappingDataContainer data, Path output) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public VersionedMappingDataContainer read(Path input) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
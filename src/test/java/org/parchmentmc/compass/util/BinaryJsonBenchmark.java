@@ -0,0 +1,159 @@
+package org.parchmentmc.compass.util;
+
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+import okio.Buffer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares reading the cached binary form of the Blackstone metadata against parsing its JSON, over generated metadata
+ * of a size similar to that of a Minecraft version.
+ */
+@Tag("benchmark")
+public class BinaryJsonBenchmark {
+    private static final int CLASSES = 8000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    // Every 25th class, as for a staging data set of a few hundred classes
+    private static final int WORKING_SET_STRIDE = 25;
+
+    @Test
+    public void compare_with_json() throws IOException {
+        final byte[] json = generateMetadata();
+        final Object value = JsonReader.of(new Buffer().write(json)).readJsonValue();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryJson.write(value, out);
+        final byte[] binary = out.toByteArray();
+
+        // Both must agree before the timings mean anything
+        assertEquals(value, BinaryJson.read(ByteBuffer.wrap(binary)));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            JsonReader.of(new Buffer().write(json)).readJsonValue();
+            BinaryJson.read(ByteBuffer.wrap(binary));
+        }
+
+        long parsing = 0;
+        long reading = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            JsonReader.of(new Buffer().write(json)).readJsonValue();
+            parsing += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            BinaryJson.read(ByteBuffer.wrap(binary));
+            reading += System.nanoTime() - start;
+        }
+
+        System.out.printf("Reading metadata of %d classes: JSON (%.1f MiB) %.1f ms, binary (%.1f MiB) %.1f ms per round%n",
+                CLASSES, json.length / (1024.0 * 1024.0), parsing / 1e6 / ROUNDS,
+                binary.length / (1024.0 * 1024.0), reading / 1e6 / ROUNDS);
+    }
+
+    @Test
+    public void compare_working_set_with_whole() throws IOException {
+        final Object value = JsonReader.of(new Buffer().write(generateMetadata())).readJsonValue();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryJson.write(value, out);
+        final byte[] binary = out.toByteArray();
+
+        // Positions are found once, when the cache is written
+        final BinaryJson.Document indexed = BinaryJson.open(ByteBuffer.wrap(binary));
+        final int[] positions = indexed.findElements(indexed.findMember(indexed.getRootPosition(), "classes"));
+        assertEquals(CLASSES, positions.length);
+
+        final List<?> classes = (List<?>) ((Map<?, ?>) value).get("classes");
+        for (int i = 0; i < CLASSES; i += WORKING_SET_STRIDE) {
+            assertEquals(classes.get(i), indexed.read(positions[i]));
+        }
+
+        long whole = 0;
+        long workingSet = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            BinaryJson.read(ByteBuffer.wrap(binary));
+            final long wholeTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final BinaryJson.Document document = BinaryJson.open(ByteBuffer.wrap(binary));
+            for (int i = 0; i < CLASSES; i += WORKING_SET_STRIDE) {
+                document.read(positions[i]);
+            }
+            final long workingSetTime = System.nanoTime() - start;
+
+            if (round >= WARMUP_ROUNDS) {
+                whole += wholeTime;
+                workingSet += workingSetTime;
+            }
+        }
+
+        System.out.printf("Reading binary metadata: all %d classes %.1f ms, %d classes %.1f ms per round%n",
+                CLASSES, whole / 1e6 / ROUNDS, CLASSES / WORKING_SET_STRIDE, workingSet / 1e6 / ROUNDS);
+    }
+
+    // Generates JSON shaped like the Blackstone metadata: classes with named members in several schemas
+    private static byte[] generateMetadata() throws IOException {
+        final Random random = new Random(42);
+        final Buffer buffer = new Buffer();
+        try (JsonWriter writer = JsonWriter.of(buffer)) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("specVersion").value("1.0.0");
+            writer.name("minecraftVersion").value("1.17");
+            writer.name("classes").beginArray();
+            for (int c = 0; c < CLASSES; c++) {
+                writer.beginObject();
+                writeNamed(writer.name("name"), "c" + c, "net/minecraft/pkg" + (c % 60) + "/Class" + c);
+                writeNamed(writer.name("superName"), "java/lang/Object", "java/lang/Object");
+                writer.name("securitySpecification").value(random.nextInt(0x4000));
+                writer.name("fields").beginArray();
+                for (int f = 0; f < 6; f++) {
+                    writer.beginObject();
+                    writeNamed(writer.name("owner"), "c" + c, "net/minecraft/pkg" + (c % 60) + "/Class" + c);
+                    writeNamed(writer.name("name"), "f" + f, "field" + f);
+                    writeNamed(writer.name("descriptor"), "I", "I");
+                    writer.name("securitySpecification").value(random.nextInt(0x4000));
+                    writer.endObject();
+                }
+                writer.endArray();
+                writer.name("methods").beginArray();
+                for (int m = 0; m < 12; m++) {
+                    writer.beginObject();
+                    writeNamed(writer.name("owner"), "c" + c, "net/minecraft/pkg" + (c % 60) + "/Class" + c);
+                    writeNamed(writer.name("name"), "m" + m, "method" + m);
+                    final int other = random.nextInt(CLASSES);
+                    writeNamed(writer.name("descriptor"), "(Lc" + other + ";I)V",
+                            "(Lnet/minecraft/pkg" + (other % 60) + "/Class" + other + ";I)V");
+                    writer.name("lambda").value(m % 5 == 0);
+                    writer.name("securitySpecification").value(random.nextInt(0x4000));
+                    writer.name("startLine").value(random.nextInt(5000));
+                    writer.endObject();
+                }
+                writer.endArray();
+                writer.name("innerClasses").beginArray().endArray();
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        return buffer.readByteArray();
+    }
+
+    private static void writeNamed(JsonWriter writer, String obfName, String mojName) throws IOException {
+        writer.beginObject();
+        writer.name("obf").value(obfName);
+        writer.name("moj").value(mojName);
+        writer.endObject();
+    }
+}
@@ -0,0 +1,76 @@
+package org.parchmentmc.compass.util;
+
+import com.squareup.moshi.JsonReader;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryJsonTest {
+    private static final String JSON = "{\"name\":{\"mojName\":\"net/minecraft/Thing\",\"obfName\":\"a\"},"
+            + "\"empty\":{},\"list\":[],\"flags\":[true,false,null],"
+            + "\"numbers\":[0,-1,1,4096,-2147483649,9007199254740993,1.5,-0.0,1e300,-2.5e-7],"
+            + "\"text\":\"caf\\u00e9 \\u2603 \\ud83d\\ude00 \\\"quoted\\\"\","
+            + "\"nested\":[{\"name\":\"a\"},{\"name\":\"a\",\"text\":\"net/minecraft/Thing\"}]}";
+
+    @Test
+    public void round_trips_json_values() throws IOException {
+        final Object value = JsonReader.of(new Buffer().writeUtf8(JSON)).readJsonValue();
+
+        assertEquals(value, roundTrip(value));
+    }
+
+    @Test
+    public void preserves_object_key_order() throws IOException {
+        final Object value = JsonReader.of(new Buffer().writeUtf8("{\"b\":1,\"a\":2,\"c\":3}")).readJsonValue();
+
+        assertEquals(Arrays.asList("b", "a", "c"), Arrays.asList(((Map<?, ?>) roundTrip(value)).keySet().toArray()));
+    }
+
+    @Test
+    public void round_trips_null_root() throws IOException {
+        assertNull(roundTrip(null));
+    }
+
+    @Test
+    public void reads_single_values_by_position() throws IOException {
+        final Object value = JsonReader.of(new Buffer().writeUtf8(JSON)).readJsonValue();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryJson.write(value, out);
+        final BinaryJson.Document document = BinaryJson.open(ByteBuffer.wrap(out.toByteArray()));
+
+        final int nested = document.findMember(document.getRootPosition(), "nested");
+        final int[] elements = document.findElements(nested);
+        assertNotNull(elements);
+        assertEquals(2, elements.length);
+        assertEquals(((List<?>) ((Map<?, ?>) value).get("nested")).get(1), document.read(elements[1]));
+        assertEquals("net/minecraft/Thing", document.read(document.findMember(elements[1], "text")));
+
+        assertEquals(-1, document.findMember(document.getRootPosition(), "missing"));
+        assertEquals(-1, document.findMember(nested, "name"));
+        assertNull(document.findElements(document.getRootPosition()));
+    }
+
+    @Test
+    public void rejects_corrupt_data() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryJson.write(JsonReader.of(new Buffer().writeUtf8(JSON)).readJsonValue(), out);
+        final byte[] bytes = out.toByteArray();
+
+        assertThrows(IOException.class, () -> BinaryJson.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length / 2))));
+        assertThrows(IOException.class, () -> BinaryJson.read(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+    }
+
+    private static Object roundTrip(Object value) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryJson.write(value, out);
+        return BinaryJson.read(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
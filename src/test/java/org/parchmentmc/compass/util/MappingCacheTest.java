@@ -0,0 +1,96 @@
+package org.parchmentmc.compass.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappingCacheTest {
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    public void computes_once_and_loads_afterwards() throws IOException {
+        final MappingCache cache = new MappingCache(cacheDir);
+        final AtomicInteger computed = new AtomicInteger();
+
+        final IMappingFile first = cache.get("test.reverse", "abc", () -> {
+            computed.incrementAndGet();
+            return createMapping().reverse();
+        });
+        final IMappingFile second = cache.get("test.reverse", "abc", () -> {
+            computed.incrementAndGet();
+            return createMapping().reverse();
+        });
+
+        assertEquals(1, computed.get());
+        assertEquals(first.getClasses().size(), second.getClasses().size());
+
+        final IMappingFile.IClass cls = second.getClass("net/minecraft/Thing");
+        assertNotNull(cls);
+        assertEquals("a", cls.getMapped());
+        assertEquals("b", cls.remapField("health"));
+        assertEquals("c", cls.remapMethod("tick", "(Lnet/minecraft/Thing;)V"));
+    }
+
+    @Test
+    public void different_keys_are_cached_separately() throws IOException {
+        final MappingCache cache = new MappingCache(cacheDir);
+        final AtomicInteger computed = new AtomicInteger();
+
+        cache.get("test", "abc", () -> {
+            computed.incrementAndGet();
+            return createMapping();
+        });
+        cache.get("test", "def", () -> {
+            computed.incrementAndGet();
+            return createMapping();
+        });
+        cache.get("test.reverse", "abc", () -> {
+            computed.incrementAndGet();
+            return createMapping().reverse();
+        });
+
+        assertEquals(3, computed.get());
+        assertEquals(3, countFiles());
+    }
+
+    @Test
+    public void unknown_hash_is_not_cached() throws IOException {
+        final MappingCache cache = new MappingCache(cacheDir);
+        final AtomicInteger computed = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.get("test", MappingCache.combineHashes("abc", null), () -> {
+                computed.incrementAndGet();
+                return createMapping();
+            });
+        }
+
+        assertEquals(2, computed.get());
+        assertEquals(0, countFiles());
+    }
+
+    private long countFiles() throws IOException {
+        if (!Files.isDirectory(cacheDir)) return 0;
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.count();
+        }
+    }
+
+    private static IMappingFile createMapping() {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder.IClass cls = builder.addClass("a", "net/minecraft/Thing");
+        cls.field("b", "health").descriptor("I");
+        cls.method("(La;)V", "c", "tick");
+        return builder.build().getMap("left", "right");
+    }
+}
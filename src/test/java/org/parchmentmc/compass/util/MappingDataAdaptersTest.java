@@ -0,0 +1,166 @@
+package org.parchmentmc.compass.util;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.Moshi;
+import okio.BufferedSource;
+import okio.Okio;
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.io.moshi.LinkedHashSetMoshiAdapter;
+import org.parchmentmc.feather.io.moshi.MDCMoshiAdapter;
+import org.parchmentmc.feather.io.moshi.SimpleVersionAdapter;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+import org.parchmentmc.feather.mapping.VersionedMDCDelegate;
+import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappingDataAdaptersTest {
+    private static final Moshi FEATHER = new Moshi.Builder()
+            .add(new MDCMoshiAdapter(true))
+            .add(new SimpleVersionAdapter())
+            .add(LinkedHashSetMoshiAdapter.FACTORY)
+            .build();
+    private static final Moshi CODEC = new Moshi.Builder()
+            .add(MappingDataAdapters.factory())
+            .add(new MDCMoshiAdapter(true))
+            .add(new SimpleVersionAdapter())
+            .add(LinkedHashSetMoshiAdapter.FACTORY)
+            .build();
+
+    public static final MappingDataBuilder data = new MappingDataBuilder();
+
+    static {
+        data.createPackage("com/example")
+                .addJavadoc("The example package");
+        data.createPackage("com/example/empty");
+        data.createClass("com/example/TestApp")
+                .addJavadoc("A class of the app")
+                .addJavadoc("")
+                .createField("instance", "Lcom/example/TestApp;")
+                .addJavadoc("The instance \u00e9\u00e8 of the \"app\"");
+        data.getOrCreateClass("com/example/TestApp")
+                .createField("undocumented", "I");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("main", "([Ljava/lang/String;)V")
+                .addJavadoc("Main method of the application")
+                .createParameter((byte) 0).setName("args").setJavadoc("The arguments");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("run", "(JI)V")
+                .createParameter((byte) 3).setJavadoc("An unnamed parameter");
+        data.getOrCreateClass("com/example/TestApp")
+                .createMethod("<init>", "()V");
+        data.createClass("com/example/TestApp$Inner");
+    }
+
+    @Test
+    public void container_output_matches_feather_adapters() throws IOException {
+        final VersionedMappingDataContainer container = new VersionedMDCDelegate<>(
+                VersionedMappingDataContainer.CURRENT_FORMAT, data);
+
+        assertSameJson(VersionedMappingDataContainer.class, container, "  ");
+        assertSameJson(VersionedMappingDataContainer.class, container, "");
+    }
+
+    @Test
+    public void class_and_package_output_matches_feather_adapters() throws IOException {
+        for (MappingDataContainer.ClassData cls : data.getClasses()) {
+            assertSameJson(MappingDataContainer.ClassData.class, cls, "  ");
+        }
+        for (MappingDataContainer.PackageData pkg : data.getPackages()) {
+            assertSameJson(MappingDataContainer.PackageData.class, pkg, "  ");
+        }
+    }
+
+    @Test
+    public void codec_reads_feather_output() throws IOException {
+        final String json = FEATHER.adapter(VersionedMappingDataContainer.class).indent("  ")
+                .toJson(new VersionedMDCDelegate<>(VersionedMappingDataContainer.CURRENT_FORMAT, data));
+
+        final VersionedMappingDataContainer read = CODEC.adapter(VersionedMappingDataContainer.class).fromJson(json);
+        final VersionedMappingDataContainer expected = FEATHER.adapter(VersionedMappingDataContainer.class)
+                .fromJson(json);
+
+        assertNotNull(read);
+        assertNotNull(expected);
+        assertEquals(VersionedMappingDataContainer.CURRENT_FORMAT, read.getFormatVersion());
+        // Compared with feather's own reading, as feather does not write undocumented classes
+        assertEquals(MappingDataBuilder.copyOf(expected), MappingDataBuilder.copyOf(read));
+        assertEquals(data.getClass("com/example/TestApp"),
+                MappingDataBuilder.copyOf(read).getClass("com/example/TestApp"));
+    }
+
+    @Test
+    public void codec_reads_data_the_same_as_feather() throws IOException {
+        final String json = readResource("mapping-data.json");
+
+        final VersionedMappingDataContainer expected = FEATHER.adapter(VersionedMappingDataContainer.class)
+                .fromJson(json);
+        final VersionedMappingDataContainer actual = CODEC.adapter(VersionedMappingDataContainer.class)
+                .fromJson(json);
+
+        assertNotNull(expected);
+        assertNotNull(actual);
+        assertEquals(expected.getFormatVersion(), actual.getFormatVersion());
+        assertEquals(MappingDataBuilder.copyOf(expected), MappingDataBuilder.copyOf(actual));
+
+        final MappingDataContainer.MethodData run = actual.getClass("com/example/TestApp").getMethod("run", "(JI)V");
+        assertNotNull(run);
+        assertNull(run.getParameter((byte) 1).getName());
+        assertEquals("An unnamed parameter", run.getParameter((byte) 3).getJavadoc());
+        assertTrue(actual.getClass("com/example/Undocumented").getJavadoc().isEmpty());
+    }
+
+    @Test
+    public void undocumented_output_matches_feather_adapters() throws IOException {
+        final MappingDataContainer read = CODEC.adapter(VersionedMappingDataContainer.class)
+                .fromJson(readResource("mapping-data.json"));
+        assertNotNull(read);
+
+        for (MappingDataContainer.ClassData cls : read.getClasses()) {
+            assertSameJson(MappingDataContainer.ClassData.class, cls, "  ");
+            for (MappingDataContainer.FieldData field : cls.getFields()) {
+                assertSameJson(MappingDataContainer.FieldData.class, field, "  ");
+            }
+            for (MappingDataContainer.MethodData method : cls.getMethods()) {
+                assertSameJson(MappingDataContainer.MethodData.class, method, "  ");
+            }
+        }
+    }
+
+    @Test
+    public void codec_reads_parameter_indices_in_byte_range() throws IOException {
+        final JsonAdapter<MappingDataContainer.ParameterData> adapter =
+                CODEC.adapter(MappingDataContainer.ParameterData.class);
+        for (int index : new int[]{Byte.MIN_VALUE, -1, 0, Byte.MAX_VALUE}) {
+            final MappingDataContainer.ParameterData param = adapter.fromJson("{\"index\": " + index
+                    + ", \"name\": \"p\"}");
+            assertNotNull(param);
+            assertEquals((byte) index, param.getIndex());
+            assertEquals("p", param.getName());
+        }
+
+        for (int index : new int[]{Byte.MIN_VALUE - 1, Byte.MAX_VALUE + 1, 255}) {
+            assertThrows(JsonDataException.class, () -> adapter.fromJson("{\"index\": " + index + "}"),
+                    () -> "Accepted index " + index);
+        }
+        assertThrows(JsonDataException.class, () -> adapter.fromJson("{\"name\": \"p\"}"));
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (BufferedSource source = Okio.buffer(Okio.source(
+                Objects.requireNonNull(MappingDataAdaptersTest.class.getResourceAsStream(name), name)))) {
+            return source.readUtf8();
+        }
+    }
+
+    private static <T> void assertSameJson(Class<T> type, T value, String indent) {
+        final JsonAdapter<T> expected = FEATHER.adapter(type).indent(indent);
+        final JsonAdapter<T> actual = CODEC.adapter(type).indent(indent);
+        assertEquals(expected.toJson(value), actual.toJson(value));
+    }
+}
@@ -0,0 +1,151 @@
+package org.parchmentmc.compass.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappingUtilTest {
+    @Test
+    public void superset_contains_all_entries() {
+        final IMappingFile server = createMapping(false, false);
+        final IMappingFile client = createMapping(true, false);
+
+        assertTrue(MappingUtil.isSuperset(server, client));
+        assertTrue(MappingUtil.isSuperset(client, client));
+        assertFalse(MappingUtil.isSuperset(client, server));
+    }
+
+    @Test
+    public void reports_missing_entries_in_order() {
+        final IMappingFile server = createMapping(false, true);
+        final IMappingFile client = createMapping(true, false);
+
+        assertEquals(Arrays.asList("field a.extra", "method a.extra()V"),
+                MappingUtil.findMissingFromSuperset(server, client, 10, 1));
+        assertEquals(Collections.singletonList("field a.extra"),
+                MappingUtil.findMissingFromSuperset(server, client, 1, 1));
+
+        final List<String> missing = MappingUtil.findMissingFromSuperset(client, server, 10, 1);
+        assertTrue(missing.contains("class c"), () -> "Missing entries: " + missing);
+    }
+
+    @Test
+    public void reports_the_same_missing_entries_in_parallel() {
+        final IMappingBuilder setBuilder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder supersetBuilder = IMappingBuilder.create("left", "right");
+        for (int i = 0; i < 40; i++) {
+            setBuilder.addClass("c" + i, "net/minecraft/Class" + i).field("f", "field").descriptor("I");
+            // Every third class is missing, and every other class is missing its field
+            if (i % 3 == 0) continue;
+            final IMappingBuilder.IClass cls = supersetBuilder.addClass("c" + i, "net/minecraft/Class" + i);
+            if (i % 2 == 0) cls.field("f", "field").descriptor("I");
+        }
+        final IMappingFile set = setBuilder.build().getMap("left", "right");
+        final IMappingFile superset = supersetBuilder.build().getMap("left", "right");
+
+        final List<String> all = MappingUtil.findMissingFromSuperset(set, superset, Integer.MAX_VALUE, 1);
+        assertEquals(Arrays.asList("class c0", "field c1.f", "class c3", "field c5.f", "class c6"), all.subList(0, 5));
+        for (int limit : new int[]{1, 5, 11, all.size(), all.size() + 1}) {
+            final List<String> expected = all.subList(0, Math.min(limit, all.size()));
+            assertEquals(expected, MappingUtil.findMissingFromSuperset(set, superset, limit, 1));
+            assertEquals(expected, MappingUtil.findMissingFromSuperset(set, superset, limit, 4));
+        }
+    }
+
+    @Test
+    public void describes_more_missing_entries_than_reported_with_an_ellipsis() {
+        final List<String> missing = new ArrayList<>();
+        for (int i = 0; i <= MappingUtil.MAX_REPORTED_MISSING; i++) {
+            missing.add("class c" + i);
+        }
+        final List<String> reported = missing.subList(0, MappingUtil.MAX_REPORTED_MISSING);
+
+        assertEquals(String.join(", ", reported), MappingUtil.describeMissing(reported));
+        assertEquals(String.join(", ", reported) + ", ...", MappingUtil.describeMissing(missing));
+    }
+
+    @Test
+    public void removes_undocumented_data() {
+        final MappingDataBuilder builder = createData();
+        MappingUtil.removeUndocumented(builder);
+        assertPruned(builder);
+    }
+
+    @Test
+    public void removes_undocumented_data_in_parallel() {
+        final MappingDataBuilder builder = createData();
+        MappingUtil.removeUndocumented(builder, 4);
+        assertPruned(builder);
+    }
+
+    private static void assertPruned(MappingDataBuilder builder) {
+        assertNull(builder.getPackage("net/minecraft/empty"));
+        assertNotNull(builder.getPackage("net/minecraft"));
+
+        assertNull(builder.getClass("net/minecraft/Empty"));
+        assertNotNull(builder.getClass("net/minecraft/Documented"));
+
+        final MappingDataBuilder.MutableClassData cls = builder.getClass("net/minecraft/Members");
+        assertNotNull(cls);
+        assertNull(cls.getField("undocumented"));
+        assertNotNull(cls.getField("documented"));
+        assertNull(cls.getMethod("undocumented", "(I)V"));
+        assertNotNull(cls.getMethod("documented", "()V"));
+
+        final MappingDataBuilder.MutableMethodData method = cls.getMethod("named", "(II)V");
+        assertNotNull(method);
+        assertEquals(1, method.getParameters().size());
+        assertNotNull(method.getParameter((byte) 2));
+
+        for (int i = 0; i < 20; i++) {
+            assertNull(builder.getClass("net/minecraft/Filler" + i));
+        }
+    }
+
+    private static MappingDataBuilder createData() {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        builder.createPackage("net/minecraft").addJavadoc("Documented package");
+        builder.createPackage("net/minecraft/empty");
+
+        builder.createClass("net/minecraft/Empty");
+        builder.createClass("net/minecraft/Documented").addJavadoc("Documented class");
+
+        final MappingDataBuilder.MutableClassData cls = builder.createClass("net/minecraft/Members");
+        cls.createField("undocumented", "I");
+        cls.createField("documented", "I").addJavadoc("Documented field");
+        cls.createMethod("undocumented", "(I)V").createParameter((byte) 1);
+        cls.createMethod("documented", "()V").addJavadoc("Documented method");
+        final MappingDataBuilder.MutableMethodData method = cls.createMethod("named", "(II)V");
+        method.createParameter((byte) 1);
+        method.createParameter((byte) 2).setName("value");
+
+        for (int i = 0; i < 20; i++) {
+            builder.createClass("net/minecraft/Filler" + i).createField("field", "I");
+        }
+        return builder;
+    }
+
+    private static IMappingFile createMapping(boolean client, boolean extra) {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder.IClass a = builder.addClass("a", "net/minecraft/Shared");
+        a.field("b", "value").descriptor("I");
+        a.method("()V", "c", "run");
+        if (extra) {
+            a.field("extra", "extra").descriptor("I");
+            a.method("()V", "extra", "extra");
+        }
+        builder.addClass("b", "net/minecraft/Common");
+        if (client) {
+            builder.addClass("c", "net/minecraft/client/Screen").method("()V", "a", "render");
+        }
+        return builder.build().getMap("left", "right");
+    }
+}
@@ -0,0 +1,134 @@
+package org.parchmentmc.compass.util;
+
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.metadata.ClassMetadata;
+import org.parchmentmc.feather.metadata.ClassMetadataBuilder;
+import org.parchmentmc.feather.metadata.FieldMetadata;
+import org.parchmentmc.feather.metadata.FieldMetadataBuilder;
+import org.parchmentmc.feather.metadata.MethodMetadata;
+import org.parchmentmc.feather.metadata.MethodMetadataBuilder;
+import org.parchmentmc.feather.named.Named;
+import org.parchmentmc.feather.named.NamedBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetadataIndexTest {
+    private static final ClassMetadata BASE = ClassMetadataBuilder.create()
+            .withName(named("com/example/Base"))
+            .withSuperName(named("java/lang/Object"))
+            .withMethods(Collections.singleton(method("com/example/Base", "run", "()V")))
+            .build();
+    private static final ClassMetadata INNER = ClassMetadataBuilder.create()
+            .withName(named("com/example/Child$Inner"))
+            .withSuperName(named("java/lang/Object"))
+            .withOwner(named("com/example/Child"))
+            .withFields(Collections.singleton(field("com/example/Child$Inner", "value", "I")))
+            .build();
+    private static final ClassMetadata CHILD = ClassMetadataBuilder.create()
+            .withName(named("com/example/Child"))
+            .withSuperName(named("com/example/Base"))
+            .withMethods(Collections.singleton(method("com/example/Child", "run", "()V")))
+            .withInnerClasses(Collections.singleton(INNER))
+            .build();
+    private static final ClassMetadata OTHER = ClassMetadataBuilder.create()
+            .withName(named("com/example/Other"))
+            .withSuperName(named("java/lang/Object"))
+            .build();
+
+    // The top-level class which is or contains each class, the same as the index of the Blackstone metadata cache
+    private static final Map<String, ClassMetadata> TOP_LEVEL = new HashMap<>();
+
+    static {
+        TOP_LEVEL.put("com/example/Base", BASE);
+        TOP_LEVEL.put("com/example/Child", CHILD);
+        TOP_LEVEL.put("com/example/Child$Inner", CHILD);
+        TOP_LEVEL.put("com/example/Other", OTHER);
+    }
+
+    @Test
+    public void preload_only_loads_the_given_classes() {
+        final List<String> loaded = new ArrayList<>();
+        final MetadataIndex index = lazyIndex(loaded);
+
+        index.preload(Arrays.asList("com/example/Child", "com/example/Missing"));
+
+        assertEquals(Arrays.asList("com/example/Child", "com/example/Missing"), loaded);
+        assertEquals(2, index.getClassCount()); // The class and its inner class
+
+        // Already loaded or requested classes are not loaded again
+        index.preload(Arrays.asList("com/example/Child", "com/example/Child$Inner", "com/example/Missing"));
+        assertNull(index.getClass("com/example/Missing"));
+        assertEquals(Arrays.asList("com/example/Child", "com/example/Missing"), loaded);
+    }
+
+    @Test
+    public void loads_parent_classes_on_demand() {
+        final List<String> loaded = new ArrayList<>();
+        final MetadataIndex index = lazyIndex(loaded);
+        index.preload(Collections.singleton("com/example/Child"));
+
+        // Walk up the parent chain, as when cascading the javadocs of parent methods
+        final ClassMetadata child = index.getClass("com/example/Child");
+        assertSame(CHILD, child);
+        final String parentName = child.getSuperName().getMojangName().orElse(null);
+        assertEquals("com/example/Base", parentName);
+        assertEquals(Collections.singletonList("com/example/Child"), loaded);
+
+        final MethodMetadata parentMethod = index.getMethod(parentName, "run", "()V");
+        assertNotNull(parentMethod);
+        assertEquals("com/example/Base", parentMethod.getOwner().getMojangName().orElse(null));
+        assertSame(BASE, index.getClass(parentName));
+        assertEquals(Arrays.asList("com/example/Child", "com/example/Base"), loaded);
+        assertEquals(3, index.getClassCount());
+        assertFalse(loaded.contains("com/example/Other"));
+    }
+
+    @Test
+    public void resolves_inner_classes_through_their_top_level_class() {
+        final List<String> loaded = new ArrayList<>();
+        final MetadataIndex index = lazyIndex(loaded);
+
+        final FieldMetadata field = index.getField("com/example/Child$Inner", "value");
+        assertNotNull(field);
+        assertSame(INNER, index.getClass("com/example/Child$Inner"));
+
+        // The top-level class was loaded along with the inner class
+        assertSame(CHILD, index.getClass("com/example/Child"));
+        assertNotNull(index.getMethod("com/example/Child", "run", "()V"));
+        assertEquals(Collections.singletonList("com/example/Child$Inner"), loaded);
+    }
+
+    private static MetadataIndex lazyIndex(List<String> loaded) {
+        return MetadataIndex.lazy(className -> {
+            loaded.add(className);
+            return TOP_LEVEL.get(className);
+        });
+    }
+
+    private static Named named(String mojangName) {
+        return NamedBuilder.create().withMojang(mojangName).build();
+    }
+
+    private static FieldMetadata field(String owner, String name, String descriptor) {
+        return FieldMetadataBuilder.create()
+                .withOwner(named(owner))
+                .withName(named(name))
+                .withDescriptor(named(descriptor))
+                .build();
+    }
+
+    private static MethodMetadata method(String owner, String name, String descriptor) {
+        return MethodMetadataBuilder.create()
+                .withOwner(named(owner))
+                .withName(named(name))
+                .withDescriptor(named(descriptor))
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package org.parchmentmc.compass.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.parchmentmc.feather.mapping.MappingDataBuilder.*;
+
+/**
+ * Compares remapping through a {@link RemapIndex} against remapping through the mapping file lookups, over generated
+ * data of a size similar to that of a Minecraft version.
+ */
+@Tag("benchmark")
+public class RemapIndexBenchmark {
+    private static final int CLASSES = 8000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void compare_with_mapping_file_lookups() {
+        final IMappingFile mapping = generateMapping();
+        final MappingDataContainer data = generateData(mapping);
+
+        // Both must agree before the timings mean anything
+        assertEquals(legacyRemapData(data, mapping), MappingUtil.remapData(data, RemapIndex.of(mapping)));
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            legacyRemapData(data, mapping);
+            MappingUtil.remapData(data, RemapIndex.of(mapping));
+        }
+
+        long legacy = 0;
+        long current = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            legacyRemapData(data, mapping);
+            legacy += System.nanoTime() - start;
+
+            // Includes building the index, as each task does
+            start = System.nanoTime();
+            MappingUtil.remapData(data, RemapIndex.of(mapping));
+            current += System.nanoTime() - start;
+        }
+
+        System.out.printf("Remapping %d classes: mapping file lookups %.1f ms, remap index %.1f ms per round%n",
+                CLASSES, legacy / 1e6 / ROUNDS, current / 1e6 / ROUNDS);
+    }
+
+    private static IMappingFile generateMapping() {
+        final Random random = new Random(42);
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        for (int c = 0; c < CLASSES; c++) {
+            final IMappingBuilder.IClass cls = builder.addClass(obfClass(c), namedClass(c));
+            for (int f = 0; f < 6; f++) {
+                cls.field("f" + f, "field" + f).descriptor(descriptor(random, false));
+            }
+            for (int m = 0; m < 12; m++) {
+                cls.method(descriptor(random, true), "m" + m, "method" + m);
+            }
+        }
+        return builder.build().getMap("left", "right");
+    }
+
+    private static MappingDataContainer generateData(IMappingFile mapping) {
+        final MappingDataBuilder builder = new MappingDataBuilder();
+        for (IMappingFile.IClass cls : mapping.getClasses()) {
+            final MutableClassData classData = builder.createClass(cls.getOriginal()).addJavadoc("A class");
+            for (IMappingFile.IField field : cls.getFields()) {
+                classData.createField(field.getOriginal(), field.getDescriptor()).addJavadoc("A field");
+            }
+            for (IMappingFile.IMethod method : cls.getMethods()) {
+                classData.createMethod(method.getOriginal(), method.getDescriptor())
+                        .createParameter((byte) 1).setName("param");
+            }
+        }
+        return builder;
+    }
+
+    private static String descriptor(Random random, boolean method) {
+        final String[] types = {"I", "Z", "J", "Ljava/lang/String;", "L" + obfClass(random.nextInt(CLASSES)) + ";",
+                "[L" + obfClass(random.nextInt(CLASSES)) + ";"};
+        if (!method) return types[random.nextInt(types.length)];
+        final StringBuilder desc = new StringBuilder("(");
+        final int params = random.nextInt(4);
+        for (int i = 0; i < params; i++) desc.append(types[random.nextInt(types.length)]);
+        return desc.append(')').append(random.nextInt(3) == 0 ? "V" : types[random.nextInt(types.length)]).toString();
+    }
+
+    private static String obfClass(int index) {
+        return "c" + index;
+    }
+
+    private static String namedClass(int index) {
+        return "net/minecraft/pkg" + (index % 60) + "/Class" + index;
+    }
+
+    // The remapping as it was before the index, looking up every member through the mapping file
+    private static MappingDataBuilder legacyRemapData(MappingDataContainer data, IMappingFile mapping) {
+        MappingDataBuilder builder = new MappingDataBuilder();
+
+        data.getPackages().forEach(pkg -> builder.createPackage(mapping.remapPackage(pkg.getName())).addJavadoc(pkg.getJavadoc()));
+
+        data.getClasses().forEach(cls -> {
+            IMappingFile.IClass mappedClass = mapping.getClass(cls.getName());
+            String clsName = cls.getName();
+            if (mappedClass != null) {
+                clsName = mappedClass.getMapped();
+            }
+            MutableClassData classData = builder.createClass(clsName).addJavadoc(cls.getJavadoc());
+
+            cls.getFields().forEach(field -> {
+                String fieldName = field.getName();
+                String fieldDescriptor = mapping.remapDescriptor(field.getDescriptor());
+
+                if (mappedClass != null) {
+                    IMappingFile.IField mappedField = mappedClass.getField(field.getName());
+                    if (mappedField != null) {
+                        fieldName = mappedField.getMapped();
+                        if (mappedField.getMappedDescriptor() != null) {
+                            fieldDescriptor = mappedField.getMappedDescriptor();
+                        }
+                    }
+                }
+
+                classData.createField(fieldName, fieldDescriptor).addJavadoc(field.getJavadoc());
+            });
+
+            cls.getMethods().forEach(method -> {
+                String methodName = method.getName();
+                String methodDescriptor = method.getDescriptor();
+
+                if (mappedClass != null) {
+                    IMappingFile.IMethod mappedMethod = mappedClass.getMethod(method.getName(), method.getDescriptor());
+                    if (mappedMethod != null) {
+                        methodName = mappedMethod.getMapped();
+                        methodDescriptor = mappedMethod.getMappedDescriptor();
+                    }
+                }
+
+                MutableMethodData methodData = classData.createMethod(methodName, methodDescriptor)
+                        .addJavadoc(method.getJavadoc());
+
+                method.getParameters().forEach(param -> methodData.createParameter(param.getIndex()).setName(param.getName()).setJavadoc(param.getJavadoc()));
+            });
+        });
+
+        return builder;
+    }
+}
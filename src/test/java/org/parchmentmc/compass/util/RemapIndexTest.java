@@ -0,0 +1,98 @@
+package org.parchmentmc.compass.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.junit.jupiter.api.Test;
+import org.parchmentmc.feather.mapping.MappingDataBuilder;
+import org.parchmentmc.feather.mapping.MappingDataContainer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RemapIndexTest {
+    private static final List<String> DESCRIPTORS = Arrays.asList("I", "[J", "La;", "[[La;", "Lb$c;",
+            "Ljava/lang/String;", "(La;ILb$c;)V", "()La;", "([La;Lunmapped;)[Lb$c;");
+    private static final List<String> PACKAGES = Arrays.asList("com/example", "net/minecraft", "unmapped");
+
+    @Test
+    public void lookups_match_the_mapping_file() {
+        final IMappingFile mapping = createMapping();
+        final RemapIndex index = RemapIndex.of(mapping);
+
+        assertSame(mapping, index.getMapping());
+        for (IMappingFile.IClass cls : mapping.getClasses()) {
+            assertSame(mapping.getClass(cls.getOriginal()), index.getClass(cls.getOriginal()));
+            for (IMappingFile.IField field : cls.getFields()) {
+                final IMappingFile.IField indexed = index.getField(cls.getOriginal(), field.getOriginal());
+                assertSame(cls.getField(field.getOriginal()), indexed);
+                assertEquals(field.getMappedDescriptor(), indexed.getMappedDescriptor());
+            }
+            for (IMappingFile.IMethod method : cls.getMethods()) {
+                assertSame(cls.getMethod(method.getOriginal(), method.getDescriptor()),
+                        index.getMethod(cls.getOriginal(), method.getOriginal(), method.getDescriptor()));
+            }
+        }
+
+        // The field was mapped without a descriptor
+        final IMappingFile.IField undescribed = index.getField("a", "d");
+        assertNotNull(undescribed);
+        assertNull(undescribed.getMappedDescriptor());
+
+        assertNull(index.getClass("unmapped"));
+        assertNull(index.getField("a", "missing"));
+        assertNull(index.getField("b$c", "d")); // A field of another class
+        assertNull(index.getMethod("a", "e", "()V")); // Another descriptor of a mapped method
+        assertNull(index.getMethod("unmapped", "e", "(La;)V"));
+    }
+
+    @Test
+    public void remapping_matches_the_mapping_file() {
+        final IMappingFile mapping = createMapping();
+        final RemapIndex index = RemapIndex.of(mapping);
+
+        // Twice, so the memoized results are checked as well
+        for (int i = 0; i < 2; i++) {
+            for (String descriptor : DESCRIPTORS) {
+                assertEquals(mapping.remapDescriptor(descriptor), index.remapDescriptor(descriptor), descriptor);
+            }
+            for (String packageName : PACKAGES) {
+                assertEquals(mapping.remapPackage(packageName), index.remapPackage(packageName), packageName);
+            }
+        }
+    }
+
+    @Test
+    public void remapped_data_uses_the_remapped_descriptor_for_fields_without_one() {
+        final IMappingFile mapping = createMapping();
+        final MappingDataBuilder data = new MappingDataBuilder();
+        final MappingDataBuilder.MutableClassData cls = data.createClass("a");
+        cls.createField("d", "Lb$c;").addJavadoc("Mapped without a descriptor");
+        cls.createField("f", "La;").addJavadoc("Mapped with a descriptor");
+        cls.createMethod("e", "(La;)V").addJavadoc("A mapped method");
+
+        final MappingDataContainer remapped = MappingUtil.remapData(data, RemapIndex.of(mapping));
+
+        final MappingDataContainer.ClassData remappedClass = remapped.getClass("com/example/First");
+        assertNotNull(remappedClass);
+        assertEquals(mapping.remapDescriptor("Lb$c;"), remappedClass.getField("data").getDescriptor());
+        assertEquals(mapping.getClass("a").getField("f").getMappedDescriptor(),
+                remappedClass.getField("first").getDescriptor());
+        assertNotNull(remappedClass.getMethod("execute", mapping.remapDescriptor("(La;)V")));
+    }
+
+    private static IMappingFile createMapping() {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        builder.addPackage("net/minecraft", "com/example");
+        final IMappingBuilder.IClass first = builder.addClass("a", "com/example/First");
+        first.field("d", "data");
+        first.field("f", "first").descriptor("La;");
+        first.method("(La;)V", "e", "execute");
+        first.method("(ILb$c;)La;", "e", "create");
+        final IMappingBuilder.IClass inner = builder.addClass("b$c", "com/example/Second$Inner");
+        inner.field("g", "value").descriptor("I");
+        inner.method("()V", "h", "run");
+        return builder.build().getMap("left", "right");
+    }
+}